@@ -5,18 +5,19 @@ import com.voll.api.domain.usuario.UsuarioRepository;
 import com.voll.api.domain.usuario.dto_usuario.UsuarioDTO;
 import com.voll.api.infra.security.TokenJWTDTO;
 import com.voll.api.infra.security.TokenService;
+import com.voll.api.infra.security.VerificadorContrasenias;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.concurrent.CompletableFuture;
+
 @RestController
 @RequestMapping("/login")
 public class AutenticacionController {
@@ -24,7 +25,7 @@ public class AutenticacionController {
     @Autowired
     private TokenService service;
     @Autowired
-    private AuthenticationManager manager;
+    private VerificadorContrasenias verificador;
 
 
     /*
@@ -38,10 +39,14 @@ public class AutenticacionController {
     * las credenciales del usuario de manera especial, para validar y permitir o no el acceso al usario
     *
     * El token es intanciado con los datos del usuario
+    *
+    * La autenticación (BCrypt) se ejecuta en el pool de VerificadorContrasenias y no en el hilo de Tomcat,
+    * que queda libre mientras tanto: la respuesta se envía cuando el CompletableFuture termina.
+    * Si la cola del pool está llena se responde 503 con Retry-After (LoginSaturadoException).
     * */
 
     @PostMapping
-    public ResponseEntity<?> autenticar(@RequestBody @Valid UsuarioDTO usuario) throws Exception{
+    public CompletableFuture<ResponseEntity<?>> autenticar(@RequestBody @Valid UsuarioDTO usuario) {
         UsernamePasswordAuthenticationToken tokenAuthentication = new UsernamePasswordAuthenticationToken(usuario.login(), usuario.password());
         /*
         El método `authenticate` puede producir tres resultados posibles:
@@ -55,13 +60,14 @@ public class AutenticacionController {
           Si el manager no puede manejar ese tipo de autenticación, puede devolver `null` (caso menos común).
         * */
 
-        Authentication authentication = manager.authenticate(tokenAuthentication);
+        return verificador.autenticar(tokenAuthentication).thenApply(authentication -> {
 
-        /*Autentication devuelve un Objeto que deberá ser Casteado indicando que será un Usuario
-          el usuario lo usara el service para generar el Token (String)*/
-        String tokenJWT = service.generateToken((Usuario) authentication.getPrincipal());
+            /*Autentication devuelve un Objeto que deberá ser Casteado indicando que será un Usuario
+              el usuario lo usara el service para generar el Token (String)*/
+            String tokenJWT = service.generateToken((Usuario) authentication.getPrincipal());
 
-        /*Siguiendo los estandares la información será enviado como un DTO*/
-        return  ResponseEntity.ok(new TokenJWTDTO(tokenJWT));
+            /*Siguiendo los estandares la información será enviado como un DTO*/
+            return ResponseEntity.ok(new TokenJWTDTO(tokenJWT));
+        });
     }
 }
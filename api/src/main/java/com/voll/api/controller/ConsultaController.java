@@ -1,13 +1,24 @@
 package com.voll.api.controller;
 
+import com.voll.api.domain.consulta.DisponibilidadConsultaService;
 import com.voll.api.domain.consulta.ReservaConsultaService;
 import com.voll.api.domain.consulta.dto_consulta.ConsultaDTO;
 import com.voll.api.domain.consulta.ReservaConsultaData;
+import com.voll.api.domain.consulta.ReservaLoteData;
+import com.voll.api.domain.consulta.historico.HistorialConsultaService;
+import com.voll.api.domain.exportacion.FormatoExportacion;
+import com.voll.api.domain.exportacion.RespuestaExportacion;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
 
 @RestController
 @RequestMapping("/consulta")
@@ -16,6 +27,12 @@ public class ConsultaController {
 
     @Autowired
     private ReservaConsultaService service;
+    @Autowired
+    private RespuestaExportacion respuestaExportacion;
+    @Autowired
+    private DisponibilidadConsultaService disponibilidadService;
+    @Autowired
+    private HistorialConsultaService historialService;
     /*
     * Este método recibe una request POST
     */
@@ -27,6 +44,47 @@ public class ConsultaController {
         return ResponseEntity.ok(detalleConsulta);
     }
 
+    /*
+    * Retorna, para cada hora del día (fecha en formato yyyy-MM-dd), cuántos médicos activos
+    * de la especialidad siguen libres. Sirve para reservar "cualquier médico" de una especialidad.
+    */
+    @GetMapping("/disponibilidad")
+    public ResponseEntity<?> disponibilidad(@RequestParam String especialidad,
+                                            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fecha){
+        return ResponseEntity.ok(disponibilidadService.porEspecialidad(especialidad, fecha));
+    }
+
+    /*
+    * Reserva varias consultas en una sola request.
+    * Retorna 200 OK con el resultado de cada consulta (reservada o rechazada con su motivo).
+    */
+    @PostMapping("/batch")
+    public ResponseEntity<?> reservarLote(@RequestBody @Valid ReservaLoteData datos){
+        var resultado = service.reservarLote(datos.consultas());
+        return ResponseEntity.ok(resultado);
+    }
+
+    /*
+    * Exporta todas las consultas activas, ordenadas por fecha, en NDJSON (por defecto) o CSV con "formato=csv".
+    * La respuesta se escribe en streaming mientras se recorre el resultado de la base de datos.
+    */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportar(@RequestParam(defaultValue = "ndjson") String formato){
+        var tipo = FormatoExportacion.desde(formato);
+        return respuestaExportacion.de(tipo, "consultas", salida -> service.exportar(salida, tipo));
+    }
+
+    /*
+    * Historial de consultas (activas, canceladas y archivadas) de un médico ("medico=") o de un paciente ("paciente="),
+    * de la más reciente a la más antigua. Retorna un Slice: la página y si existe una siguiente.
+    */
+    @GetMapping("/historial")
+    public ResponseEntity<?> historial(@RequestParam(required = false) Long medico,
+                                       @RequestParam(required = false) Long paciente,
+                                       @PageableDefault(size = 20) Pageable pageable){
+        return ResponseEntity.ok(historialService.historial(medico, paciente, pageable));
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<?> cancelar(@PathVariable Long id){
         System.out.println(id);
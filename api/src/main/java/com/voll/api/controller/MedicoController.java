@@ -1,21 +1,29 @@
 package com.voll.api.controller;
 
-import com.voll.api.domain.medico.dto_medico.MedicoDTOList;
+import com.voll.api.domain.medico.dto_medico.DisponibilidadMedicoDTO;
 import com.voll.api.domain.medico.dto_medico.MedicoDTOModified;
 import com.voll.api.domain.medico.MedicoData;
 import com.voll.api.domain.medico.dto_medico.MedicoDTO;
-import com.voll.api.domain.medico.Medico;
 import com.voll.api.domain.medico.MedicoService;
+import com.voll.api.domain.exportacion.FormatoExportacion;
+import com.voll.api.domain.exportacion.RespuestaExportacion;
+import com.voll.api.domain.importacion.FormatoImportacion;
+import com.voll.api.domain.importacion.ResultadoImportacionDTO;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import java.io.InputStream;
+import java.time.LocalDate;
+
 @RestController //Creación del CRUD
 @RequestMapping("/medicos") //Este es el path que el controller se va a hacer cargo de mapear
 @SecurityRequirement(name = "bearer-key") // Para Header de autorización con SpringDocs
@@ -23,6 +31,8 @@ public class MedicoController {
 
     @Autowired //Inyectamos dependencias de la capa service para aplicar la lógica de negocio
     private MedicoService service;
+    @Autowired
+    private RespuestaExportacion respuestaExportacion;
 
     //Los @Valid solo van en la capa controller
 
@@ -54,11 +64,43 @@ public class MedicoController {
 
 
     //GET 200 OK
-    /*Retorna un 200 OK con un pageable como Body*/
+    /*Retorna un 200 OK con un pageable como Body.
+    * Un solo handler para las tres formas de listar, así ninguna combinación de parámetros es ambigua:
+    * - "after": paginación por cursor. Vacío para la primera página y luego el "siguienteCursor" recibido;
+    *   a diferencia de la paginación con OFFSET, cualquier página cuesta lo mismo que la primera.
+    *   Tiene prioridad sobre "total", que no aplica a un cursor.
+    * - "total=false": retorna un Slice, la página y si existe una siguiente, sin contar los registros.
+    * - Sin ninguno de los dos: la página con el total.
+    */
     @GetMapping//Recibe una petición HTTP GET
-    public ResponseEntity<Page<MedicoDTOList>> listar(@PageableDefault(size=10, sort={"id"}) Pageable pageable){
-        var page = service.listar(pageable);
-        return ResponseEntity.ok(page);
+    public ResponseEntity<?> listar(@PageableDefault(size=10, sort={"id"}) Pageable pageable,
+                                    @RequestParam(required = false) String after,
+                                    @RequestParam(defaultValue = "true") boolean total){
+        if (after != null) {
+            return ResponseEntity.ok(service.listarDespuesDe(after, pageable.getPageSize()));
+        }
+        if (!total) {
+            return ResponseEntity.ok(service.listarSinTotal(pageable));
+        }
+        return ResponseEntity.ok(service.listar(pageable));
+    }
+
+    /*GET 200 OK
+    * Exporta todos los médicos activos en NDJSON (por defecto) o en CSV con "formato=csv".
+    * Las filas se escriben a medida que se leen de la base de datos, sin paginar ni contar.*/
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportar(@RequestParam(defaultValue = "ndjson") String formato){
+        var tipo = FormatoExportacion.desde(formato);
+        return respuestaExportacion.de(tipo, "medicos", salida -> service.exportar(salida, tipo));
+    }
+
+    /*POST 200 OK
+    * Importación masiva de médicos desde un cuerpo NDJSON (application/x-ndjson) o CSV (text/csv).
+    * El cuerpo se lee en streaming y se guarda en lotes; retorna los totales y los errores por línea.*/
+    @PostMapping(value = "/import", consumes = {FormatoImportacion.NDJSON_VALUE, "application/ndjson", FormatoImportacion.CSV_VALUE})
+    public ResponseEntity<ResultadoImportacionDTO> importar(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                            InputStream cuerpo){
+        return ResponseEntity.ok(service.importar(cuerpo, FormatoImportacion.desde(contentType)));
     }
 
     /*PUT 200 OK
@@ -92,9 +134,19 @@ public class MedicoController {
     * Retorna un Médico en especifico dado su ID*/
     @GetMapping("/{id}")
     public ResponseEntity<MedicoDTO> buscar(@PathVariable Long id){
-        Medico medico = service.buscar(id);
-        return ResponseEntity.ok(new MedicoDTO(medico));
+        return ResponseEntity.ok(service.buscar(id));
     }
 
-
+    /*GET 200 OK
+    * Retorna los horarios libres del médico entre dos fechas (formato yyyy-MM-dd, máximo 90 días).
+    * Si no se envían, se toma desde hoy y hasta 7 días después de "desde".
+    * Retorna un 404 si el médico no existe.*/
+    @GetMapping("/{id}/disponibilidad")
+    public ResponseEntity<DisponibilidadMedicoDTO> disponibilidad(@PathVariable Long id,
+                                                                  @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+                                                                  @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta){
+        var inicio = desde != null ? desde : LocalDate.now();
+        var fin = hasta != null ? hasta : inicio.plusDays(6);
+        return ResponseEntity.ok(service.disponibilidad(id, inicio, fin));
+    }
 }
@@ -1,21 +1,26 @@
 package com.voll.api.controller;
 
 import com.voll.api.domain.paciente.dto_paciente.PacienteDTO;
-import com.voll.api.domain.paciente.dto_paciente.PacienteDTOList;
 import com.voll.api.domain.paciente.dto_paciente.PacienteDTOModified;
 import com.voll.api.domain.paciente.PacienteData;
-import com.voll.api.domain.paciente.Paciente;
 import com.voll.api.domain.paciente.PacienteService;
+import com.voll.api.domain.exportacion.FormatoExportacion;
+import com.voll.api.domain.exportacion.RespuestaExportacion;
+import com.voll.api.domain.importacion.FormatoImportacion;
+import com.voll.api.domain.importacion.ResultadoImportacionDTO;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import java.io.InputStream;
+
 @RestController
 @RequestMapping("/pacientes")
 @SecurityRequirement(name = "bearer-key") // Para Header de autorización con SpringDocs
@@ -23,11 +28,28 @@ public class PacienteController {
 
     @Autowired
     private PacienteService service;
+    @Autowired
+    private RespuestaExportacion respuestaExportacion;
 
+    /*
+    * Un solo handler para las tres formas de listar, así ninguna combinación de parámetros es ambigua:
+    * - "after": paginación por cursor. Vacío para la primera página y luego el "siguienteCursor" recibido;
+    *   a diferencia de la paginación con OFFSET, cualquier página cuesta lo mismo que la primera.
+    *   Tiene prioridad sobre "total", que no aplica a un cursor.
+    * - "total=false": retorna un Slice, la página y si existe una siguiente, sin contar los registros.
+    * - Sin ninguno de los dos: la página con el total.
+    */
     @GetMapping
-    public ResponseEntity<Page<PacienteDTOList>> listar(@PageableDefault(size=10, sort={"id"}) Pageable pageable) {
-        var page = service.listar(pageable);
-        return ResponseEntity.ok(page);
+    public ResponseEntity<?> listar(@PageableDefault(size=10, sort={"id"}) Pageable pageable,
+                                    @RequestParam(required = false) String after,
+                                    @RequestParam(defaultValue = "true") boolean total){
+        if (after != null) {
+            return ResponseEntity.ok(service.listarDespuesDe(after, pageable.getPageSize()));
+        }
+        if (!total) {
+            return ResponseEntity.ok(service.listarSinTotal(pageable));
+        }
+        return ResponseEntity.ok(service.listar(pageable));
     }
 
     @PostMapping
@@ -41,6 +63,24 @@ public class PacienteController {
         return ResponseEntity.created(uri).body(new PacienteDTO(paciente));
     }
 
+    /*GET 200 OK
+    * Exporta todos los pacientes activos en NDJSON (por defecto) o en CSV con "formato=csv".
+    * Las filas se escriben a medida que se leen de la base de datos, sin paginar ni contar.*/
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportar(@RequestParam(defaultValue = "ndjson") String formato){
+        var tipo = FormatoExportacion.desde(formato);
+        return respuestaExportacion.de(tipo, "pacientes", salida -> service.exportar(salida, tipo));
+    }
+
+    /*POST 200 OK
+    * Importación masiva de pacientes desde un cuerpo NDJSON (application/x-ndjson) o CSV (text/csv).
+    * El cuerpo se lee en streaming y se guarda en lotes; retorna los totales y los errores por línea.*/
+    @PostMapping(value = "/import", consumes = {FormatoImportacion.NDJSON_VALUE, "application/ndjson", FormatoImportacion.CSV_VALUE})
+    public ResponseEntity<ResultadoImportacionDTO> importar(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                            InputStream cuerpo){
+        return ResponseEntity.ok(service.importar(cuerpo, FormatoImportacion.desde(contentType)));
+    }
+
     @PutMapping
     public ResponseEntity<PacienteDTO> atualizar(@RequestBody @Valid PacienteDTOModified datos) {
         var paciente = service.actualizar(datos);
@@ -55,7 +95,6 @@ public class PacienteController {
 
     @GetMapping("/{id}")
     public ResponseEntity<PacienteDTO> buscar(@PathVariable Long id) {
-        Paciente paciente = service.buscar(id);
-        return ResponseEntity.ok(new PacienteDTO(paciente));
+        return ResponseEntity.ok(service.buscar(id));
     }
 }
@@ -0,0 +1,28 @@
+package com.voll.api.domain;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/*
+ * Ejecuta una acción sobre el estado en memoria (índices, cachés) recién cuando la
+ * transacción en curso se confirma, así un rollback nunca deja ese estado desincronizado
+ * de la base de datos. Sin transacción activa, la acción se ejecuta en el momento.
+ */
+public final class AlConfirmarTransaccion {
+
+    private AlConfirmarTransaccion() {
+    }
+
+    public static void ejecutar(Runnable accion) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            accion.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                accion.run();
+            }
+        });
+    }
+}
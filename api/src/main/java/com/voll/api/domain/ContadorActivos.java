@@ -0,0 +1,63 @@
+package com.voll.api.domain;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+/*
+ * Cantidad de registros activos de una entidad, en memoria.
+ *
+ * Se carga con un COUNT la primera vez que se pide y luego el servicio dueño de la entidad
+ * la ajusta con sumar/restar al registrar y eliminar, así los listados paginados no ejecutan
+ * un COUNT por request. Cada "vigencia" se vuelve a contar para corregir cambios hechos
+ * fuera de este nodo (otras instancias, scripts sobre la base de datos).
+ */
+public class ContadorActivos {
+
+    private static final long SIN_CARGAR = -1;
+    private static final int INTENTOS_RECUENTO = 3;
+
+    private final LongSupplier contar;
+    private final long vigenciaNanos;
+    private final AtomicReference<Estado> estado = new AtomicReference<>(new Estado(SIN_CARGAR, 0, 0));
+
+    public ContadorActivos(LongSupplier contar, Duration vigencia) {
+        this.contar = contar;
+        this.vigenciaNanos = vigencia.toNanos();
+    }
+
+    /*
+     * Un registro o una baja que ocurre mientras se cuenta puede estar o no en el COUNT, así que el
+     * recuento solo se guarda si la versión no cambió entre que empezó y terminó. Si cambió, se vuelve
+     * a contar; si sigue cambiando, se retorna el último COUNT sin guardarlo y se recuenta en la próxima llamada.
+     */
+    public long total() {
+        var contado = SIN_CARGAR;
+        for (int intento = 0; intento < INTENTOS_RECUENTO; intento++) {
+            var antes = estado.get();
+            if (antes.total() != SIN_CARGAR && System.nanoTime() - antes.cargadoEn() < vigenciaNanos) {
+                return antes.total();
+            }
+            contado = contar.getAsLong();
+            if (estado.compareAndSet(antes, new Estado(contado, antes.version(), System.nanoTime()))) {
+                return contado;
+            }
+        }
+        return contado;
+    }
+
+    /* Se usan después del commit; si todavía no se contó, solo se registra el cambio de versión. */
+    public void sumar(long cantidad) {
+        estado.updateAndGet(actual -> new Estado(
+                actual.total() == SIN_CARGAR ? SIN_CARGAR : Math.max(0, actual.total() + cantidad),
+                actual.version() + 1,
+                actual.cargadoEn()));
+    }
+
+    public void restar(long cantidad) {
+        sumar(-cantidad);
+    }
+
+    /* Total, versión (cantidad de ajustes) y momento del último recuento, que cambian juntos */
+    private record Estado(long total, long version, long cargadoEn) {}
+}
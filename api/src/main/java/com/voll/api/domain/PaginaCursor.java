@@ -0,0 +1,59 @@
+package com.voll.api.domain;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/*
+ * Página de un listado con paginación por cursor (keyset).
+ *
+ * "siguienteCursor" es opaco para el cliente: se envía tal cual en "after" para pedir
+ * la página siguiente y es null cuando no hay más registros. Internamente codifica
+ * el último ID devuelto, así cada página es un "id > cursor ORDER BY id LIMIT size"
+ * que cuesta lo mismo sin importar cuántas páginas se hayan recorrido.
+ */
+public record PaginaCursor<T>(List<T> contenido, String siguienteCursor) {
+
+    public static final int TAMANIO_MAXIMO = 500;
+
+    private static final String PREFIJO = "id:";
+
+    /*
+     * Arma la página a partir de una consulta que trajo hasta size + 1 registros:
+     * el registro extra solo indica que existe una página siguiente.
+     */
+    public static <E, T> PaginaCursor<T> de(List<E> registros, int size, Function<E, Long> id, Function<E, T> mapeo) {
+        var hayMas = registros.size() > size;
+        var pagina = hayMas ? registros.subList(0, size) : registros;
+        var siguiente = hayMas ? codificar(id.apply(pagina.get(pagina.size() - 1))) : null;
+        return new PaginaCursor<>(pagina.stream().map(mapeo).toList(), siguiente);
+    }
+
+    /* Un cursor vacío corresponde a la primera página */
+    public static long decodificar(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        try {
+            var texto = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!texto.startsWith(PREFIJO)) {
+                throw new IllegalArgumentException(texto);
+            }
+            return Long.parseLong(texto.substring(PREFIJO.length()));
+        } catch (IllegalArgumentException e) {
+            throw new ValidacionException("Cursor de paginación inválido");
+        }
+    }
+
+    public static int validarTamanio(int size) {
+        if (size < 1 || size > TAMANIO_MAXIMO) {
+            throw new ValidacionException("El tamaño de página debe estar entre 1 y " + TAMANIO_MAXIMO);
+        }
+        return size;
+    }
+
+    private static String codificar(Long id) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString((PREFIJO + id).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -20,7 +20,14 @@ import java.time.LocalDateTime;
 public class Consulta {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    /*
+     * IDs por bloques de 50 tomados de la tabla "secuencias" (ver migración V12), igual que
+     * Medico, Paciente y Usuario. Con IDENTITY el ID recién existe después de cada INSERT,
+     * por lo que Hibernate no puede agrupar los INSERT en batch; con bloques de IDs sí.
+     */
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "secuencia_consultas")
+    @TableGenerator(name = "secuencia_consultas", table = "secuencias", pkColumnName = "nombre",
+            valueColumnName = "siguiente_valor", pkColumnValue = "consultas", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -1,12 +1,140 @@
 package com.voll.api.domain.consulta;
 
 
+import com.voll.api.domain.consulta.agenda.AgendaConsulta;
+import com.voll.api.domain.consulta.dto_consulta.ConsultaDTO;
+import com.voll.api.domain.consulta.historico.ConsultaHistorial;
+import com.voll.api.domain.exportacion.ExportadorEnStreaming;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
 
 public interface ConsultaRepository extends JpaRepository<Consulta, Long> {
-    boolean existsByPacienteIdAndFechaBetween(Long idPaciente, LocalDateTime primerHorario, LocalDateTime ultimoHorario);
 
-    boolean existsByMedicoIdAndFecha(Long idMedico, LocalDateTime fecha);
+    /*
+     * Proyecta únicamente médico, paciente y fecha de las consultas activas
+     * a partir de la fecha indicada. Se usa para reconstruir el IndiceAgenda.
+     */
+    @Query("""
+    SELECT new com.voll.api.domain.consulta.agenda.AgendaConsulta(c.medico.id, c.paciente.id, c.fecha)
+    FROM Consulta c
+    WHERE c.activo = true
+        AND c.fecha >= :desde
+    """)
+    List<AgendaConsulta> buscarAgendaDesde(LocalDateTime desde);
+
+    /*
+     * Proyecta, en una sola consulta por rango de fechas, las consultas activas
+     * de cualquiera de los médicos o pacientes indicados.
+     * Se usa para validar los conflictos de agenda de una reserva en lote.
+     */
+    @Query("""
+    SELECT new com.voll.api.domain.consulta.agenda.AgendaConsulta(c.medico.id, c.paciente.id, c.fecha)
+    FROM Consulta c
+    WHERE c.activo = true
+        AND c.fecha BETWEEN :desde AND :hasta
+        AND (c.medico.id IN :idsMedicos OR c.paciente.id IN :idsPacientes)
+    """)
+    List<AgendaConsulta> buscarAgendaEnRango(LocalDateTime desde,
+                                             LocalDateTime hasta,
+                                             Collection<Long> idsMedicos,
+                                             Collection<Long> idsPacientes);
+
+    /*
+     * Fechas de las consultas activas de un médico dentro del rango indicado.
+     * Es la única consulta que necesita el cálculo de disponibilidad del médico.
+     */
+    @Query("""
+    SELECT c.fecha
+    FROM Consulta c
+    WHERE c.medico.id = :idMedico
+        AND c.activo = true
+        AND c.fecha BETWEEN :desde AND :hasta
+    """)
+    List<LocalDateTime> buscarFechasOcupadasMedico(Long idMedico, LocalDateTime desde, LocalDateTime hasta);
+
+    /*
+     * Todas las consultas activas en orden de fecha (el orden del índice de activo y fecha, sin filesort),
+     * para la exportación (GET /consulta/export).
+     * Se lee fila por fila en streaming, igual que MedicoRepository.exportarActivos.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = ExportadorEnStreaming.FETCH_EN_STREAMING))
+    @Query("""
+    SELECT new com.voll.api.domain.consulta.dto_consulta.ConsultaDTO(c.id, c.medico.id, c.paciente.id, c.fecha)
+    FROM Consulta c
+    WHERE c.activo = true
+    ORDER BY c.fecha, c.id
+    """)
+    Stream<ConsultaDTO> exportarActivas();
+
+    /*
+     * Archivo de consultas (ArchivoConsultas): bloquea hasta "lote" consultas canceladas o anteriores a "limite".
+     * El filtro son dos rangos del índice (activo, fecha). SKIP LOCKED salta las filas que otra transacción
+     * tiene bloqueadas (otro nodo archivando, una cancelación en curso) en lugar de esperar por ellas.
+     */
+    @Query(value = """
+    SELECT c.id
+    FROM consultas c
+    WHERE c.activo = false
+        OR (c.activo = true AND c.fecha < :limite)
+    LIMIT :lote
+    FOR UPDATE SKIP LOCKED
+    """, nativeQuery = true)
+    List<Long> bloquearArchivables(LocalDateTime limite, int lote);
+
+    @Modifying
+    @Query(value = """
+    INSERT INTO consultas_historico (id, medico_id, paciente_id, fecha, activo)
+    SELECT c.id, c.medico_id, c.paciente_id, c.fecha, c.activo
+    FROM consultas c
+    WHERE c.id IN :ids
+    """, nativeQuery = true)
+    int copiarAlHistorico(Collection<Long> ids);
+
+    @Modifying
+    @Query("DELETE FROM Consulta c WHERE c.id IN :ids")
+    int eliminarArchivadas(Collection<Long> ids);
+
+    /*
+     * Historial de un médico: sus consultas en "consultas" y en "consultas_historico" (UNION ALL,
+     * un ID está en una sola de las dos tablas), de la más reciente a la más antigua.
+     */
+    @Query(value = """
+    SELECT c.id AS id, c.medico_id AS idMedico, c.paciente_id AS idPaciente, c.fecha AS fecha,
+           CASE WHEN c.activo = true THEN 'ACTIVA' ELSE 'CANCELADA' END AS estado
+    FROM consultas c
+    WHERE c.medico_id = :idMedico
+    UNION ALL
+    SELECT h.id, h.medico_id, h.paciente_id, h.fecha,
+           CASE WHEN h.activo = true THEN 'ACTIVA' ELSE 'CANCELADA' END
+    FROM consultas_historico h
+    WHERE h.medico_id = :idMedico
+    ORDER BY fecha DESC, id DESC
+    """, nativeQuery = true)
+    Slice<ConsultaHistorial> historialMedico(Long idMedico, Pageable pageable);
+
+    /* Igual que historialMedico, para un paciente */
+    @Query(value = """
+    SELECT c.id AS id, c.medico_id AS idMedico, c.paciente_id AS idPaciente, c.fecha AS fecha,
+           CASE WHEN c.activo = true THEN 'ACTIVA' ELSE 'CANCELADA' END AS estado
+    FROM consultas c
+    WHERE c.paciente_id = :idPaciente
+    UNION ALL
+    SELECT h.id, h.medico_id, h.paciente_id, h.fecha,
+           CASE WHEN h.activo = true THEN 'ACTIVA' ELSE 'CANCELADA' END
+    FROM consultas_historico h
+    WHERE h.paciente_id = :idPaciente
+    ORDER BY fecha DESC, id DESC
+    """, nativeQuery = true)
+    Slice<ConsultaHistorial> historialPaciente(Long idPaciente, Pageable pageable);
 }
@@ -0,0 +1,53 @@
+package com.voll.api.domain.consulta;
+
+import com.voll.api.domain.ValidacionException;
+import com.voll.api.domain.consulta.agenda.HorarioAtencion;
+import com.voll.api.domain.consulta.agenda.IndiceAgenda;
+import com.voll.api.domain.consulta.dto_consulta.DisponibilidadEspecialidadDTO;
+import com.voll.api.domain.medico.Especialidad;
+import com.voll.api.domain.medico.asignacion.CandidatosPorEspecialidad;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+
+@Service
+public class DisponibilidadConsultaService {
+
+    @Autowired
+    private IndiceAgenda indiceAgenda;
+    @Autowired
+    private CandidatosPorEspecialidad candidatos;
+
+    /*
+    * Cuántos médicos de la especialidad quedan libres en cada hora del día indicado.
+    *
+    * Se responde con los contadores por especialidad que el IndiceAgenda mantiene al reservar
+    * y cancelar consultas, sin consultar la tabla "consultas". Las horas que ya no se pueden
+    * reservar con la anticipación mínima no se incluyen, y un domingo no tiene horas.
+    */
+    public DisponibilidadEspecialidadDTO porEspecialidad(String especialidadFront, LocalDate fecha) {
+        Especialidad especialidad;
+        try {
+            especialidad = Especialidad.fromFront(especialidadFront);
+        } catch (IllegalArgumentException e) {
+            throw new ValidacionException("Especialidad no válida: " + especialidadFront);
+        }
+
+        var horas = new ArrayList<DisponibilidadEspecialidadDTO.HoraDisponible>();
+        if (HorarioAtencion.esDiaDeAtencion(fecha.getDayOfWeek())) {
+            var libres = indiceAgenda.medicosLibresPorHora(especialidad, fecha);
+            var primeraHoraReservable = LocalDateTime.now().plusMinutes(HorarioAtencion.MINUTOS_ANTICIPACION);
+            for (int hora = HorarioAtencion.HORA_APERTURA; hora <= HorarioAtencion.ULTIMA_HORA; hora++) {
+                var horario = LocalTime.of(hora, 0);
+                if (!fecha.atTime(horario).isBefore(primeraHoraReservable)) {
+                    horas.add(new DisponibilidadEspecialidadDTO.HoraDisponible(horario, libres[hora - HorarioAtencion.HORA_APERTURA]));
+                }
+            }
+        }
+        return new DisponibilidadEspecialidadDTO(especialidad, fecha, candidatos.de(especialidad).size(), horas);
+    }
+}
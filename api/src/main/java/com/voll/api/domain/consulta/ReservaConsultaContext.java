@@ -0,0 +1,102 @@
+package com.voll.api.domain.consulta;
+
+import com.voll.api.domain.consulta.agenda.IndiceAgenda;
+
+import java.util.function.Supplier;
+
+/*
+* Esta clase reúne todo lo que los validadores necesitan saber sobre una reserva.
+*
+* Se arma una sola vez por request (ver ReservaConsultaService), así los validadores
+* no consultan la base de datos por su cuenta:
+* - Horas ocupadas ese día por el médico y por el paciente, como mapa de bits del IndiceAgenda.
+* - Existencia y estado "activo" del paciente y del médico.
+*
+* El estado de paciente y médico sale de la base de datos, por eso se carga de forma diferida:
+* solo la primera vez que un validador lo pide. Como PipelineValidaciones ejecuta primero
+* los validadores que no lo necesitan, una reserva inválida se rechaza sin ir a la base de datos.
+*
+* Si la reserva no informa médico, medicoExiste y medicoActivo son false y horasOcupadasMedico es 0.
+*/
+
+public final class ReservaConsultaContext {
+
+    private final ReservaConsultaData datos;
+    private final short horasOcupadasMedico;
+    private final short horasOcupadasPaciente;
+    private Supplier<Estado> cargadorEstado;
+    private Estado estado;
+
+    /* Contexto cuyo estado de paciente y médico se carga recién cuando se necesita */
+    public ReservaConsultaContext(ReservaConsultaData datos,
+                                  Supplier<Estado> cargadorEstado,
+                                  short horasOcupadasMedico,
+                                  short horasOcupadasPaciente) {
+        this.datos = datos;
+        this.cargadorEstado = cargadorEstado;
+        this.horasOcupadasMedico = horasOcupadasMedico;
+        this.horasOcupadasPaciente = horasOcupadasPaciente;
+    }
+
+    /* Contexto con el estado ya conocido, por ejemplo en una reserva en lote */
+    public ReservaConsultaContext(ReservaConsultaData datos,
+                                  Estado estado,
+                                  short horasOcupadasMedico,
+                                  short horasOcupadasPaciente) {
+        this(datos, () -> estado, horasOcupadasMedico, horasOcupadasPaciente);
+    }
+
+    public ReservaConsultaData datos() {
+        return datos;
+    }
+
+    public short horasOcupadasMedico() {
+        return horasOcupadasMedico;
+    }
+
+    public short horasOcupadasPaciente() {
+        return horasOcupadasPaciente;
+    }
+
+    public boolean pacienteExiste() {
+        return estado().pacienteExiste();
+    }
+
+    public boolean pacienteActivo() {
+        return estado().pacienteActivo();
+    }
+
+    public boolean medicoExiste() {
+        return estado().medicoExiste();
+    }
+
+    public boolean medicoActivo() {
+        return estado().medicoActivo();
+    }
+
+    /* True si el médico ya tiene una consulta en la hora solicitada */
+    public boolean medicoOcupadoEnLaHora() {
+        return (horasOcupadasMedico & IndiceAgenda.bitDeHora(datos.fecha().getHour())) != 0;
+    }
+
+    /* True si el paciente ya tiene alguna consulta en el día solicitado (la garantía es uk_consultas_paciente_dia_activo) */
+    public boolean pacienteConConsultaEnElDia() {
+        return horasOcupadasPaciente != 0;
+    }
+
+    private Estado estado() {
+        if (estado == null) {
+            estado = cargadorEstado.get();
+            cargadorEstado = null;
+        }
+        return estado;
+    }
+
+    /* Existencia y estado "activo" del paciente y del médico de la reserva */
+    public record Estado(
+            boolean pacienteExiste,
+            boolean pacienteActivo,
+            boolean medicoExiste,
+            boolean medicoActivo
+    ) {}
+}
@@ -1,21 +1,44 @@
 package com.voll.api.domain.consulta;
 
+import com.voll.api.domain.AlConfirmarTransaccion;
 import com.voll.api.domain.ValidacionException;
+import com.voll.api.domain.consulta.agenda.IndiceAgenda;
+import com.voll.api.domain.consulta.agenda.AgendaConsulta;
+import com.voll.api.domain.consulta.bloqueo.BloqueosReserva;
 import com.voll.api.domain.consulta.dto_consulta.ConsultaDTO;
-import com.voll.api.domain.consulta.validations.ValidadorDeConsultas;
+import com.voll.api.domain.consulta.dto_consulta.ItemLoteDTO;
+import com.voll.api.domain.consulta.dto_consulta.ResultadoLoteDTO;
+import com.voll.api.domain.consulta.validations.PipelineValidaciones;
+import com.voll.api.domain.exportacion.ExportadorEnStreaming;
+import com.voll.api.domain.exportacion.FormatoExportacion;
 import com.voll.api.domain.medico.Especialidad;
 import com.voll.api.domain.medico.Medico;
 import com.voll.api.domain.medico.MedicoRepository;
+import com.voll.api.domain.medico.asignacion.CandidatosPorEspecialidad;
+import com.voll.api.domain.medico.asignacion.MedicoAssignmentStrategy;
+import com.voll.api.domain.paciente.Paciente;
 import com.voll.api.domain.paciente.PacienteRepositoy;
+import jakarta.validation.Validator;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.util.List;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.LongPredicate;
+import java.util.stream.Collectors;
 
 @Service
 public class ReservaConsultaService {
 
+    private static final String RESTRICCION_HORARIO_MEDICO = "uk_consultas_medico_fecha_activa";
+    private static final String RESTRICCION_DIA_PACIENTE = "uk_consultas_paciente_dia_activo";
+
     @Autowired
     private ConsultaRepository consultaRepository;
     @Autowired
@@ -23,63 +46,415 @@ public class ReservaConsultaService {
     @Autowired
     private PacienteRepositoy pacienteRepositoy;
     @Autowired
-    private List<ValidadorDeConsultas> validadores;
+    private PipelineValidaciones pipelineValidaciones;
+    @Autowired
+    private IndiceAgenda indiceAgenda;
+    @Autowired
+    private MedicoAssignmentStrategy asignacionMedico;
+    @Autowired
+    private CandidatosPorEspecialidad candidatosPorEspecialidad;
+    @Autowired
+    private Validator validator;
+    @Autowired
+    private BloqueosReserva bloqueosReserva;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private ExportadorEnStreaming exportador;
 
-    @Transactional
+    /*
+    * Las reservas que compiten por el mismo médico y día se serializan con BloqueosReserva
+    * antes de abrir la transacción, así no se acumulan sobre los mismos registros de MySQL.
+    * El lock se libera después del commit, cuando el IndiceAgenda ya conoce la nueva consulta.
+    *
+    * Sin médico informado se toma el lock de la especialidad y día, se elige el médico y se toma
+    * también el lock de ese médico y día antes de abrir la transacción, así la reserva se serializa
+    * con las que informan ese mismo médico. Si con el lock tomado el médico ya quedó ocupado
+    * (otra reserva lo tomó entre la elección y el lock), se descarta y se elige otro.
+    */
     public ConsultaDTO reservar(ReservaConsultaData datos){
+        var dia = datos.fecha().toLocalDate();
+        if (datos.idMedico() != null) {
+            return bloqueosReserva.conMedico(datos.idMedico(), dia, () -> reservarEnTransaccion(datos, datos.idMedico()));
+        }
+        /* La especialidad se convierte antes del lock, así toda forma de escribirla usa la misma franja */
+        var especialidad = especialidadDe(datos);
+        return bloqueosReserva.conEspecialidad(especialidad, dia, () -> {
+            var descartados = new HashSet<Long>();
+            while (true) {
+                /* Si no se envió el id del médico y no hay más médicos disponibles, lanza la excepción */
+                var idMedico = asignarMedico(especialidad, datos.fecha(), descartados::contains);
+                if (idMedico == null) {
+                    throw new ValidacionException("No existe un médico disponible en ese horario");
+                }
+                var consulta = bloqueosReserva.conMedico(idMedico, dia, () ->
+                        indiceAgenda.medicoOcupado(idMedico, datos.fecha()) ? null : reservarEnTransaccion(datos, idMedico));
+                if (consulta != null) {
+                    return consulta;
+                }
+                descartados.add(idMedico);
+            }
+        });
+    }
+
+    private ConsultaDTO reservarEnTransaccion(ReservaConsultaData datos, Long idMedico) {
+        return transactionTemplate.execute(estado -> registrarConsulta(datos, idMedico));
+    }
+
+    private ConsultaDTO registrarConsulta(ReservaConsultaData datos, Long idMedico){
         //---------------------------------VALIDACIONES----------------------------------
-        if(!pacienteRepositoy.existsById(datos.idPaciente())){
-            throw new ValidacionException("No existe un paciente con el id informado");
+        pipelineValidaciones.validar(cargarContexto(datos));
+        //---------------------------------------------------------------------------------
+        /* El médico ya está elegido (informado o asignado) y su lock tomado */
+        var medico = medicoRepository.getReferenceById(idMedico);
+
+        /* Ya sabemos que el paciente existe, basta una referencia sin volver a consultarlo */
+        var paciente = pacienteRepositoy.getReferenceById(datos.idPaciente());
+
+
+        Consulta consulta = new Consulta(null, medico, paciente, datos.fecha(), true);
+
+        /*
+        * La restricción única uk_consultas_medico_fecha_activa es la que garantiza que el médico
+        * no tenga dos consultas activas en la misma fecha, incluso con requests concurrentes.
+        * Como las consultas comienzan en punto (ValidacionesFueraHorarioConsultas), la misma fecha
+        * es la misma franja horaria que bloquean el IndiceAgenda y BloqueosReserva.
+        *
+        * Del mismo modo uk_consultas_paciente_dia_activo garantiza una consulta por paciente y día:
+        * el lock es del médico, así que dos reservas del mismo paciente con médicos distintos
+        * (o en otra instancia de la API) pasan juntas la validación del IndiceAgenda.
+        * Se inserta directamente y la violación se traduce a una ValidacionException.
+        */
+        try {
+            consultaRepository.saveAndFlush(consulta);
+        } catch (DataIntegrityViolationException e) {
+            throw traducirConflicto(e, "Médico ya tiene otra consulta en esa misma fecha y hora");
+        }
+        AlConfirmarTransaccion.ejecutar(() -> indiceAgenda.registrar(medico.getId(), paciente.getId(), datos.fecha()));
+        return new ConsultaDTO(consulta);
+    }
+
+    /*
+    * Arma el contexto de la reserva. Las horas ocupadas salen del IndiceAgenda en memoria;
+    * el estado de paciente y médico (dos consultas a la base de datos) se carga recién
+    * cuando un validador lo necesita.
+    */
+    private ReservaConsultaContext cargarContexto(ReservaConsultaData datos) {
+        var dia = datos.fecha().toLocalDate();
+        return new ReservaConsultaContext(
+                datos,
+                () -> cargarEstado(datos),
+                datos.idMedico() == null ? 0 : indiceAgenda.horasOcupadasMedico(datos.idMedico(), dia),
+                indiceAgenda.horasOcupadasPaciente(datos.idPaciente(), dia)
+        );
+    }
+
+    private ReservaConsultaContext.Estado cargarEstado(ReservaConsultaData datos) {
+        var pacienteActivo = pacienteRepositoy.findActivoById(datos.idPaciente());
+        var medicoActivo = datos.idMedico() == null
+                ? Optional.<Boolean>empty()
+                : medicoRepository.findActivoById(datos.idMedico());
+        return new ReservaConsultaContext.Estado(
+                pacienteActivo.isPresent(),
+                pacienteActivo.orElse(false),
+                medicoActivo.isPresent(),
+                medicoActivo.orElse(false)
+        );
+    }
+
+    /*
+    * Reserva un lote de consultas en una sola transacción.
+    *
+    * Antes de abrir la transacción se toman con BloqueosReserva los locks de cada médico y día del lote.
+    * Para las consultas sin médico se toman los de su especialidad y día y los de todos los médicos
+    * activos de la especialidad en ese día, porque todavía no se sabe cuál se asignará. Así el lote
+    * se serializa con las reservas individuales de este nodo igual que ellas entre sí.
+    *
+    * En lugar de validar cada consulta contra la base de datos:
+    * - Se cargan todos los pacientes y todos los médicos del lote con una consulta cada uno.
+    * - Se cargan, con una sola consulta por rango de fechas, las consultas activas de esos médicos y pacientes.
+    * - Cada consulta se valida con los mismos validadores que una reserva individual, sobre un
+    *   ReservaConsultaContext armado en memoria que incluye las consultas ya aceptadas del mismo lote.
+    * - Las consultas aceptadas se insertan en batch.
+    *
+    * Si el batch viola una restricción única (por ejemplo, otra instancia de la API reservó uno de
+    * los horarios), la transacción se deshace y las consultas aceptadas se reintentan de a una,
+    * cada una en su propia transacción, como ImportadorEnLotes con las filas de un lote fallido.
+    *
+    * Cada consulta rechazada se informa con su índice y el motivo, sin afectar a las demás.
+    */
+    public ResultadoLoteDTO reservarLote(List<ReservaConsultaData> solicitudes) {
+        var resultados = new ItemLoteDTO[solicitudes.size()];
+
+        /* Validación de Bean Validation por consulta (@NotNull, @Future...) */
+        var validas = new ArrayList<Integer>();
+        for (int i = 0; i < solicitudes.size(); i++) {
+            var violaciones = solicitudes.get(i) == null ? null : validator.validate(solicitudes.get(i));
+            if (violaciones == null) {
+                resultados[i] = ItemLoteDTO.rechazada(i, "La consulta no puede ser nula");
+            } else if (!violaciones.isEmpty()) {
+                var v = violaciones.iterator().next();
+                resultados[i] = ItemLoteDTO.rechazada(i, v.getPropertyPath() + ": " + v.getMessage());
+            } else {
+                validas.add(i);
+            }
         }
 
-        if(datos.idMedico() != null && !medicoRepository.existsById(datos.idMedico())){
-            throw new ValidacionException("No existe un médico con el id informado");
+        var especialidades = new HashSet<BloqueosReserva.Clave<Especialidad>>();
+        var medicosBloqueados = new HashSet<BloqueosReserva.Clave<Long>>();
+        for (var i : validas) {
+            var datos = solicitudes.get(i);
+            var dia = datos.fecha().toLocalDate();
+            if (datos.idMedico() != null) {
+                medicosBloqueados.add(new BloqueosReserva.Clave<>(datos.idMedico(), dia));
+                continue;
+            }
+            try {
+                var especialidad = especialidadDe(datos);
+                especialidades.add(new BloqueosReserva.Clave<>(especialidad, dia));
+                candidatosPorEspecialidad.de(especialidad)
+                        .forEach(id -> medicosBloqueados.add(new BloqueosReserva.Clave<>(id, dia)));
+            } catch (ValidacionException | IllegalArgumentException e) {
+                /* Sin especialidad válida la consulta se rechaza al validarla y no necesita locks */
+            }
         }
 
-        validadores.forEach(validador -> validador.validar(datos));
-        //---------------------------------------------------------------------------------
-        var medico = elegirMedico(datos);
+        bloqueosReserva.conLote(especialidades, medicosBloqueados, () -> {
+            var aceptadas = new ArrayList<ConsultaAceptada>();
+            try {
+                transactionTemplate.executeWithoutResult(estado -> {
+                    aceptadas.addAll(validarLote(solicitudes, validas, medicosBloqueados, resultados));
+                    insertarEnBatch(aceptadas, resultados);
+                });
+            } catch (DataIntegrityViolationException e) {
+                aceptadas.forEach(aceptada -> reservarDeAUna(aceptada, resultados));
+            }
+            return null;
+        });
+
+        return new ResultadoLoteDTO(Arrays.asList(resultados));
+    }
+
+    /*
+    * Valida las consultas del lote y elige su médico con los datos cargados en memoria.
+    * Retorna las aceptadas; las rechazadas quedan informadas en "resultados".
+    *
+    * Un médico asignado automáticamente tiene que ser uno cuyo lock tomó el lote: si la lista de
+    * candidatos cambió después de tomar los locks, los médicos nuevos se descartan.
+    */
+    private List<ConsultaAceptada> validarLote(List<ReservaConsultaData> solicitudes, List<Integer> validas,
+                                               Set<BloqueosReserva.Clave<Long>> medicosBloqueados, ItemLoteDTO[] resultados) {
+        var idsPacientes = validas.stream().map(i -> solicitudes.get(i).idPaciente()).collect(Collectors.toSet());
+        var idsMedicos = validas.stream().map(i -> solicitudes.get(i).idMedico()).filter(Objects::nonNull).collect(Collectors.toSet());
+
+        var pacientes = pacienteRepositoy.findAllById(idsPacientes).stream()
+                .collect(Collectors.toMap(Paciente::getId, Function.identity()));
+        var medicos = medicoRepository.findAllById(idsMedicos).stream()
+                .collect(Collectors.toMap(Medico::getId, Function.identity()));
+
+        var ocupacion = new OcupacionLote(cargarAgendaDelLote(solicitudes, validas, idsMedicos, idsPacientes));
+
+        var aceptadas = new ArrayList<ConsultaAceptada>();
+        for (var i : validas) {
+            var datos = solicitudes.get(i);
+            try {
+                var paciente = pacientes.get(datos.idPaciente());
+                var medicoInformado = datos.idMedico() == null ? null : medicos.get(datos.idMedico());
+                var dia = datos.fecha().toLocalDate();
+
+                /* El contexto de cada consulta se arma con lo ya cargado, sin ir a la base de datos */
+                pipelineValidaciones.validar(new ReservaConsultaContext(
+                        datos,
+                        new ReservaConsultaContext.Estado(
+                                paciente != null,
+                                paciente != null && Boolean.TRUE.equals(paciente.getActivo()),
+                                medicoInformado != null,
+                                medicoInformado != null && Boolean.TRUE.equals(medicoInformado.getActivo())),
+                        datos.idMedico() == null ? 0 : ocupacion.horasOcupadasMedico(datos.idMedico(), dia),
+                        ocupacion.horasOcupadasPaciente(datos.idPaciente(), dia)
+                ));
+
+                var medico = medicoInformado != null
+                        ? medicoInformado
+                        : elegirMedico(datos, id -> ocupacion.medicoOcupado(id, datos.fecha())
+                                || !medicosBloqueados.contains(new BloqueosReserva.Clave<>(id, dia)));
+                if (medico == null) {
+                    throw new ValidacionException("No existe un médico disponible en ese horario");
+                }
 
-        /* Si no se envió el id del médico y no hay más médicos disponibles, lanza la excepción */
-        if(datos.idMedico() == null){
-            throw new ValidacionException("No existe un médico disponible en ese horario");
+                ocupacion.registrar(medico.getId(), paciente.getId(), datos.fecha());
+                aceptadas.add(new ConsultaAceptada(i, medico.getId(), paciente.getId(), datos.fecha()));
+            } catch (ValidacionException | IllegalArgumentException e) {
+                resultados[i] = ItemLoteDTO.rechazada(i, e.getMessage());
+            }
         }
+        return aceptadas;
+    }
 
-        var paciente = pacienteRepositoy.findById(datos.idPaciente()).get();
+    /*
+    * Carga, con una sola consulta, la agenda activa de los médicos y pacientes del lote
+    * entre el primer y el último día solicitados.
+    */
+    private List<AgendaConsulta> cargarAgendaDelLote(List<ReservaConsultaData> solicitudes, List<Integer> validas,
+                                                     Set<Long> idsMedicos, Set<Long> idsPacientes) {
+        if (validas.isEmpty()) {
+            return List.of();
+        }
+        var fechas = validas.stream().map(i -> solicitudes.get(i).fecha()).toList();
+        var desde = Collections.min(fechas).toLocalDate().atStartOfDay();
+        var hasta = Collections.max(fechas).toLocalDate().plusDays(1).atStartOfDay().minusNanos(1);
 
+        /* Un IN vacío no es SQL válido, se usa un ID inexistente como centinela */
+        return consultaRepository.buscarAgendaEnRango(desde, hasta,
+                idsMedicos.isEmpty() ? Set.of(-1L) : idsMedicos,
+                idsPacientes.isEmpty() ? Set.of(-1L) : idsPacientes);
+    }
 
-        Consulta consulta = new Consulta(null, medico, paciente, datos.fecha(), true);
+    /*
+    * Inserta las consultas en batch; al terminar cada Consulta ya tiene su ID.
+    * Los IDs salen de la tabla "secuencias", así Hibernate agrupa los INSERT (hibernate.jdbc.batch_size)
+    * y con rewriteBatchedStatements=true el driver de MySQL los envía como un INSERT multi-fila.
+    *
+    * Una violación de restricción única se propaga para que reservarLote reintente de a una.
+    */
+    private void insertarEnBatch(List<ConsultaAceptada> aceptadas, ItemLoteDTO[] resultados) {
+        if (aceptadas.isEmpty()) {
+            return;
+        }
+        var consultas = aceptadas.stream().map(this::nuevaConsulta).toList();
+        consultaRepository.saveAll(consultas);
+        consultaRepository.flush();
+        for (int j = 0; j < consultas.size(); j++) {
+            registrarReservada(aceptadas.get(j), consultas.get(j), resultados);
+        }
+    }
 
-        consultaRepository.save(consulta);
-        return new ConsultaDTO(consulta);
+    /* Reintento de una consulta de un batch fallido; un conflicto solo rechaza esa consulta */
+    private void reservarDeAUna(ConsultaAceptada aceptada, ItemLoteDTO[] resultados) {
+        try {
+            transactionTemplate.executeWithoutResult(estado -> {
+                /* Entidad nueva: la del batch fallido ya tiene un ID asignado */
+                var consulta = consultaRepository.saveAndFlush(nuevaConsulta(aceptada));
+                registrarReservada(aceptada, consulta, resultados);
+            });
+        } catch (DataIntegrityViolationException e) {
+            var error = traducirConflicto(e, "Otra reserva ocupó ese horario del médico, intente nuevamente");
+            resultados[aceptada.indice()] = ItemLoteDTO.rechazada(aceptada.indice(), error.getMessage());
+        }
+    }
+
+    private Consulta nuevaConsulta(ConsultaAceptada aceptada) {
+        return new Consulta(null, medicoRepository.getReferenceById(aceptada.idMedico()),
+                pacienteRepositoy.getReferenceById(aceptada.idPaciente()), aceptada.fecha(), true);
     }
 
+    /* El resultado y el IndiceAgenda se actualizan recién con el commit: si se deshace, quedan como estaban */
+    private void registrarReservada(ConsultaAceptada aceptada, Consulta consulta, ItemLoteDTO[] resultados) {
+        var dto = new ConsultaDTO(consulta);
+        AlConfirmarTransaccion.ejecutar(() -> {
+            resultados[aceptada.indice()] = ItemLoteDTO.reservada(aceptada.indice(), dto);
+            indiceAgenda.registrar(aceptada.idMedico(), aceptada.idPaciente(), aceptada.fecha());
+        });
+    }
 
     /*
     * Este método se encarga de retorar un médico aleatorio en caso de que no se especifique uno.
     * El médico estará disponible para la fecha seleccionada.
     *
-    * Si no se especificá el médico, se deberá especificar la especialidad a la que quiere agendar la consulta
+    * Si no se especificá el médico, se deberá especificar la especialidad a la que quiere agendar la consulta.
+    * "descartar" excluye médicos ocupados que el IndiceAgenda aún no conoce (consultas del mismo lote).
     */
-    private Medico elegirMedico(ReservaConsultaData datos) {
+    private Medico elegirMedico(ReservaConsultaData datos, LongPredicate descartar) {
         if(datos.idMedico() != null){
             return medicoRepository.getReferenceById(datos.idMedico());
         }
+        var idMedico = asignarMedico(especialidadDe(datos), datos.fecha(), descartar);
+        return idMedico == null ? null : medicoRepository.getReferenceById(idMedico);
+    }
 
+    private Especialidad especialidadDe(ReservaConsultaData datos) {
         if(datos.especialidad() == null){
             throw new ValidacionException("Es necesario escoger una especialidad cuando no se elige un médico");
         }
+        return Especialidad.fromFront(datos.especialidad());
+    }
 
+    private Long asignarMedico(Especialidad especialidad, LocalDateTime fecha, LongPredicate descartar) {
         /*
-        * Este return devulve a un médico aleatorio que esta disponible para la fecha indicada
-        * especificando la especialidad y la fecha de la consulta.
+        * La estrategia de asignación configurada devuelve el ID de un médico que esta disponible
+        * para la fecha indicada, especificando la especialidad y la fecha de la consulta.
+        * Devuelve null cuando ningún médico de la especialidad está libre.
         */
-        return medicoRepository.elegirMedicoAleatorioDisponibleEnLaFecha(Especialidad.fromFront((datos.especialidad())), datos.fecha());
+        return asignacionMedico.elegir(especialidad, fecha, descartar);
+    }
+
+    /* Escribe todas las consultas activas en la salida a medida que se leen de la base de datos */
+    public void exportar(OutputStream salida, FormatoExportacion formato) {
+        exportador.exportar(salida, formato, consultaRepository::exportarActivas);
     }
 
     @Transactional
     public void eliminarConsulta(Long idConsulta){
         Consulta consulta = consultaRepository.getReferenceById(idConsulta);
+        if (Boolean.TRUE.equals(consulta.getActivo())) {
+            var idMedico = consulta.getMedico().getId();
+            var idPaciente = consulta.getPaciente().getId();
+            var fecha = consulta.getFecha();
+            AlConfirmarTransaccion.ejecutar(() -> indiceAgenda.liberar(idMedico, idPaciente, fecha));
+        }
         consulta.eliminar();
     }
+
+    /*
+     * Si la violación es de la restricción de horario del médico retorna una ValidacionException
+     * con el mensaje indicado, y si es la del paciente en el día, con el mensaje de ese validador;
+     * cualquier otra violación de integridad se propaga tal cual.
+     */
+    private RuntimeException traducirConflicto(DataIntegrityViolationException e, String mensajeHorarioMedico) {
+        var causa = e.getMostSpecificCause().getMessage();
+        if (causa != null && causa.toLowerCase().contains(RESTRICCION_HORARIO_MEDICO)) {
+            return new ValidacionException(mensajeHorarioMedico);
+        }
+        if (causa != null && causa.toLowerCase().contains(RESTRICCION_DIA_PACIENTE)) {
+            return new ValidacionException("El paciente ya tiene una consulta agendada para este día");
+        }
+        return e;
+    }
+
+    /* Consulta del lote que pasó las validaciones, con su médico ya elegido */
+    private record ConsultaAceptada(int indice, Long idMedico, Long idPaciente, LocalDateTime fecha) {}
+
+    /*
+     * Ocupación de médicos y pacientes conocida durante una reserva en lote:
+     * la agenda cargada de la base de datos más las consultas ya aceptadas del mismo lote.
+     * Usa los mismos mapas de bits por día que el IndiceAgenda.
+     */
+    private static class OcupacionLote {
+        private final Map<ClaveDia, Short> medicos = new HashMap<>();
+        private final Map<ClaveDia, Short> pacientes = new HashMap<>();
+
+        OcupacionLote(List<AgendaConsulta> agenda) {
+            agenda.forEach(c -> registrar(c.idMedico(), c.idPaciente(), c.fecha()));
+        }
+
+        short horasOcupadasMedico(Long idMedico, LocalDate dia) {
+            return medicos.getOrDefault(new ClaveDia(idMedico, dia), (short) 0);
+        }
+
+        short horasOcupadasPaciente(Long idPaciente, LocalDate dia) {
+            return pacientes.getOrDefault(new ClaveDia(idPaciente, dia), (short) 0);
+        }
+
+        boolean medicoOcupado(Long idMedico, LocalDateTime fecha) {
+            return (horasOcupadasMedico(idMedico, fecha.toLocalDate()) & IndiceAgenda.bitDeHora(fecha.getHour())) != 0;
+        }
+
+        void registrar(Long idMedico, Long idPaciente, LocalDateTime fecha) {
+            var bit = IndiceAgenda.bitDeHora(fecha.getHour());
+            medicos.merge(new ClaveDia(idMedico, fecha.toLocalDate()), bit, (actual, nuevo) -> (short) (actual | nuevo));
+            pacientes.merge(new ClaveDia(idPaciente, fecha.toLocalDate()), bit, (actual, nuevo) -> (short) (actual | nuevo));
+        }
+
+        private record ClaveDia(Long id, LocalDate dia) {}
+    }
 }
@@ -0,0 +1,19 @@
+package com.voll.api.domain.consulta;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/*
+* Este record representa el Body de la request para reservar varias consultas en una sola llamada.
+*
+* Las consultas NO se anotan con @Valid: cada una se valida por separado en ReservaConsultaService,
+* así una consulta inválida no rechaza al lote completo, solo se informa como fallida.
+*/
+
+public record ReservaLoteData(
+        @NotEmpty
+        @Size(max = 500)
+        List<ReservaConsultaData> consultas
+) {}
@@ -0,0 +1,13 @@
+package com.voll.api.domain.consulta.agenda;
+
+import java.time.LocalDateTime;
+
+/*
+ * Proyección mínima de una consulta activa.
+ * Solo contiene lo necesario para reconstruir el índice de agenda en memoria.
+ */
+public record AgendaConsulta(
+        Long idMedico,
+        Long idPaciente,
+        LocalDateTime fecha
+) {}
@@ -0,0 +1,42 @@
+package com.voll.api.domain.consulta.agenda;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+
+/*
+ * Horario de atención de la clínica: de lunes a sábado, con consultas de una hora
+ * que pueden comenzar entre las 7 y las 18 (la clínica cierra a las 19).
+ *
+ * Lo usan la validación de reservas, el IndiceAgenda y el cálculo de disponibilidad,
+ * para que todos apliquen exactamente las mismas reglas.
+ */
+public final class HorarioAtencion {
+
+    public static final int HORA_APERTURA = 7;
+    public static final int ULTIMA_HORA = 18;
+    public static final int MINUTOS_ANTICIPACION = 30;
+
+    private HorarioAtencion() {
+    }
+
+    public static boolean esDiaDeAtencion(DayOfWeek dia) {
+        return dia != DayOfWeek.SUNDAY;
+    }
+
+    public static boolean esHoraDeAtencion(int hora) {
+        return hora >= HORA_APERTURA && hora <= ULTIMA_HORA;
+    }
+
+    public static boolean dentroDelHorario(LocalDateTime fecha) {
+        return esDiaDeAtencion(fecha.getDayOfWeek()) && esHoraDeAtencion(fecha.getHour());
+    }
+
+    /*
+     * Las consultas ocupan la hora completa y empiezan en punto (10:00, no 10:30).
+     * Así la fecha guardada es la misma hora que marca el IndiceAgenda, y la restricción única
+     * uk_consultas_medico_fecha_activa, que compara la fecha exacta, protege la misma franja.
+     */
+    public static boolean comienzaEnPunto(LocalDateTime fecha) {
+        return fecha.getMinute() == 0 && fecha.getSecond() == 0 && fecha.getNano() == 0;
+    }
+}
@@ -0,0 +1,305 @@
+package com.voll.api.domain.consulta.agenda;
+
+import com.voll.api.domain.consulta.ConsultaRepository;
+import com.voll.api.domain.medico.Especialidad;
+import com.voll.api.domain.medico.asignacion.CandidatosPorEspecialidad;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/*
+ * Índice en memoria de la agenda de médicos y pacientes.
+ *
+ * Por cada médico y por cada paciente se guarda, para cada día, un mapa de bits (short)
+ * donde cada bit representa una hora de atención de la clínica:
+ *
+ *   bit 0  -> 07:00
+ *   bit 1  -> 08:00
+ *   ...
+ *   bit 11 -> 18:00
+ *
+ * Las 12 horas de atención caben en un solo short, por lo que consultar si un horario
+ * está ocupado es una operación de bits sin ir a la base de datos.
+ *
+ * Además guarda, por especialidad y día, cuántos médicos activos tienen ocupada cada hora
+ * (un int[12]). Se actualiza en el mismo registrar/liberar, así la disponibilidad de una
+ * especialidad se responde restando esos contadores a la cantidad de médicos activos.
+ *
+ * El índice se reconstruye desde la tabla "consultas" al iniciar la aplicación
+ * y se mantiene sincronizado cuando se reserva o se cancela una consulta,
+ * y cuando se registra o se elimina un médico.
+ *
+ * Es la validación rápida, no la garantía: vive en la memoria de esta JVM y solo ve las reservas
+ * hechas por ella. Las reglas las garantizan las restricciones únicas de "consultas":
+ * uk_consultas_medico_fecha_activa (horario del médico) y uk_consultas_paciente_dia_activo
+ * (una consulta por paciente y día), también con varias instancias o reservas concurrentes
+ * del mismo paciente con médicos distintos.
+ */
+@Component
+public class IndiceAgenda {
+
+    public static final int HORA_APERTURA = HorarioAtencion.HORA_APERTURA;
+    public static final int ULTIMA_HORA = HorarioAtencion.ULTIMA_HORA;
+
+    private static final int HORAS_DE_ATENCION = ULTIMA_HORA - HORA_APERTURA + 1;
+
+    @Autowired
+    private ConsultaRepository repository;
+    @Autowired
+    private CandidatosPorEspecialidad candidatos;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    /* Se reemplaza completa al terminar cada reconstrucción */
+    private volatile Agenda agenda = new Agenda();
+
+    /*
+     * Cambios (registrar, liberar, médicos...) recibidos mientras se reconstruye el índice;
+     * null fuera de una reconstrucción. Se vuelven a aplicar sobre la agenda nueva antes de publicarla.
+     * Los cambios toman el lock de lectura y la publicación el de escritura, así ningún cambio
+     * queda aplicado solo en la agenda anterior.
+     */
+    private Queue<Consumer<Agenda>> cambiosDuranteReconstruccion;
+    private final ReentrantReadWriteLock publicacion = new ReentrantReadWriteLock();
+
+    /*
+     * Retorna true si el médico ya tiene una consulta en la hora de la fecha indicada.
+     */
+    public boolean medicoOcupado(Long idMedico, LocalDateTime fecha) {
+        if (idMedico == null || fecha == null) {
+            return false;
+        }
+        var bit = bitDeHora(fecha.getHour());
+        return (horasOcupadasMedico(idMedico, fecha.toLocalDate()) & bit) != 0;
+    }
+
+    /*
+     * Retorna true si el paciente ya tiene alguna consulta en el día indicado.
+     */
+    public boolean pacienteConConsultaEnElDia(Long idPaciente, LocalDate dia) {
+        if (idPaciente == null || dia == null) {
+            return false;
+        }
+        return horasOcupadasPaciente(idPaciente, dia) != 0;
+    }
+
+    public short horasOcupadasMedico(Long idMedico, LocalDate dia) {
+        return agenda.medicos.getOrDefault(new ClaveAgenda(idMedico, dia), (short) 0);
+    }
+
+    public short horasOcupadasPaciente(Long idPaciente, LocalDate dia) {
+        return agenda.pacientes.getOrDefault(new ClaveAgenda(idPaciente, dia), (short) 0);
+    }
+
+    /* Marca la hora de la consulta como ocupada para el médico y para el paciente. */
+    public void registrar(Long idMedico, Long idPaciente, LocalDateTime fecha) {
+        aplicar(a -> a.registrar(idMedico, idPaciente, fecha));
+    }
+
+    /* Libera la hora de la consulta para el médico y para el paciente. */
+    public void liberar(Long idMedico, Long idPaciente, LocalDateTime fecha) {
+        aplicar(a -> a.liberar(idMedico, idPaciente, fecha));
+    }
+
+    /*
+     * Cantidad de médicos activos de la especialidad libres en cada hora de atención del día.
+     * La posición 0 corresponde a las 07:00 y la 11 a las 18:00.
+     */
+    public int[] medicosLibresPorHora(Especialidad especialidad, LocalDate dia) {
+        var activos = candidatos.de(especialidad).size();
+        var ocupados = agenda.ocupadosPorEspecialidad.getOrDefault(new ClaveEspecialidad(especialidad, dia), new int[HORAS_DE_ATENCION]);
+        var libres = new int[HORAS_DE_ATENCION];
+        for (int i = 0; i < HORAS_DE_ATENCION; i++) {
+            libres[i] = Math.max(0, activos - ocupados[i]);
+        }
+        return libres;
+    }
+
+    /* Un médico nuevo todavía no tiene consultas, solo se registra su especialidad. */
+    public void medicoActivado(Long idMedico, Especialidad especialidad) {
+        aplicar(a -> a.especialidadMedicosActivos.put(idMedico, especialidad));
+    }
+
+    /*
+     * Un médico eliminado deja de contar en la disponibilidad de su especialidad:
+     * se descuentan de los contadores todas las horas que tenía ocupadas.
+     */
+    public void medicoDesactivado(Long idMedico) {
+        aplicar(a -> a.medicoDesactivado(idMedico));
+    }
+
+    /*
+     * Reconstruye el índice con las consultas activas desde el día de hoy.
+     * Las consultas pasadas no se indexan porque no se pueden reservar horarios en el pasado.
+     *
+     * Tomcat ya atiende requests mientras tanto: la agenda nueva se arma aparte, se le aplican
+     * los cambios recibidos desde antes de leer la base de datos y recién entonces reemplaza a
+     * la actual. Aplicar dos veces una reserva o cancelación que la consulta ya vio no cambia nada.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void reconstruir() {
+        var cambios = new ConcurrentLinkedQueue<Consumer<Agenda>>();
+        publicar(() -> cambiosDuranteReconstruccion = cambios);
+        try {
+            var nueva = new Agenda();
+            for (var especialidad : Especialidad.values()) {
+                candidatos.de(especialidad).forEach(id -> nueva.especialidadMedicosActivos.put(id, especialidad));
+            }
+            /* Transacción de escritura: con la réplica habilitada la lectura va a la primaria, que no está atrasada */
+            transactionTemplate.execute(estado -> repository.buscarAgendaDesde(LocalDate.now().atStartOfDay()))
+                    .forEach(c -> nueva.registrar(c.idMedico(), c.idPaciente(), c.fecha()));
+            publicar(() -> {
+                cambios.forEach(cambio -> cambio.accept(nueva));
+                agenda = nueva;
+            });
+        } finally {
+            publicar(() -> cambiosDuranteReconstruccion = null);
+        }
+    }
+
+    /* Cada medianoche se descartan los días que ya pasaron para que el índice no crezca sin límite. */
+    @Scheduled(cron = "0 0 0 * * *")
+    public void purgarDiasPasados() {
+        var hoy = LocalDate.now();
+        aplicar(a -> a.purgarAntesDe(hoy));
+    }
+
+    /*
+     * Convierte una hora del día en su bit dentro del short.
+     * Retorna 0 si la hora está fuera del horario de atención.
+     */
+    public static short bitDeHora(int hora) {
+        if (!HorarioAtencion.esHoraDeAtencion(hora)) {
+            return 0;
+        }
+        return (short) (1 << (hora - HORA_APERTURA));
+    }
+
+    private void aplicar(Consumer<Agenda> cambio) {
+        publicacion.readLock().lock();
+        try {
+            cambio.accept(agenda);
+            var cambios = cambiosDuranteReconstruccion;
+            if (cambios != null) {
+                cambios.add(cambio);
+            }
+        } finally {
+            publicacion.readLock().unlock();
+        }
+    }
+
+    private void publicar(Runnable accion) {
+        publicacion.writeLock().lock();
+        try {
+            accion.run();
+        } finally {
+            publicacion.writeLock().unlock();
+        }
+    }
+
+    /* Mapas de bits y contadores de una versión del índice */
+    private static class Agenda {
+
+        private final ConcurrentHashMap<ClaveAgenda, Short> medicos = new ConcurrentHashMap<>();
+        private final ConcurrentHashMap<ClaveAgenda, Short> pacientes = new ConcurrentHashMap<>();
+        private final ConcurrentHashMap<Long, Especialidad> especialidadMedicosActivos = new ConcurrentHashMap<>();
+        private final ConcurrentHashMap<ClaveEspecialidad, int[]> ocupadosPorEspecialidad = new ConcurrentHashMap<>();
+
+        void registrar(Long idMedico, Long idPaciente, LocalDateTime fecha) {
+            var bit = bitDeHora(fecha.getHour());
+            if (bit == 0) {
+                return;
+            }
+            var dia = fecha.toLocalDate();
+            var anterior = new short[1];
+            medicos.compute(new ClaveAgenda(idMedico, dia), (k, actual) -> {
+                anterior[0] = actual == null ? 0 : actual;
+                return (short) (anterior[0] | bit);
+            });
+            pacientes.merge(new ClaveAgenda(idPaciente, dia), bit, (actual, nuevo) -> (short) (actual | nuevo));
+            if ((anterior[0] & bit) == 0) {
+                sumarOcupados(especialidadMedicosActivos.get(idMedico), dia, bit, 1);
+            }
+        }
+
+        void liberar(Long idMedico, Long idPaciente, LocalDateTime fecha) {
+            var bit = bitDeHora(fecha.getHour());
+            if (bit == 0) {
+                return;
+            }
+            var dia = fecha.toLocalDate();
+            var estabaOcupada = (limpiarBit(medicos, new ClaveAgenda(idMedico, dia), bit) & bit) != 0;
+            limpiarBit(pacientes, new ClaveAgenda(idPaciente, dia), bit);
+            if (estabaOcupada) {
+                sumarOcupados(especialidadMedicosActivos.get(idMedico), dia, bit, -1);
+            }
+        }
+
+        void medicoDesactivado(Long idMedico) {
+            var especialidad = especialidadMedicosActivos.remove(idMedico);
+            if (especialidad == null) {
+                return;
+            }
+            medicos.forEach((clave, horas) -> {
+                if (clave.id().equals(idMedico)) {
+                    sumarOcupados(especialidad, clave.dia(), horas, -1);
+                }
+            });
+        }
+
+        void purgarAntesDe(LocalDate hoy) {
+            medicos.keySet().removeIf(clave -> clave.dia().isBefore(hoy));
+            pacientes.keySet().removeIf(clave -> clave.dia().isBefore(hoy));
+            ocupadosPorEspecialidad.keySet().removeIf(clave -> clave.dia().isBefore(hoy));
+        }
+
+        /* Retorna las horas que estaban ocupadas antes de limpiar el bit. */
+        private static short limpiarBit(ConcurrentHashMap<ClaveAgenda, Short> agenda, ClaveAgenda clave, short bit) {
+            var anterior = new short[1];
+            /* Si el día queda sin horas ocupadas se elimina la entrada (retornar null en computeIfPresent la remueve). */
+            agenda.computeIfPresent(clave, (k, actual) -> {
+                anterior[0] = actual;
+                var restante = (short) (actual & ~bit);
+                return restante == 0 ? null : restante;
+            });
+            return anterior[0];
+        }
+
+        /*
+         * Suma "delta" a los contadores de la especialidad en cada hora marcada en "horas".
+         * Cada actualización reemplaza el arreglo por una copia, así los lectores nunca ven un arreglo a medio modificar.
+         * Los médicos inactivos o desconocidos (especialidad null) no cuentan.
+         */
+        private void sumarOcupados(Especialidad especialidad, LocalDate dia, short horas, int delta) {
+            if (especialidad == null) {
+                return;
+            }
+            ocupadosPorEspecialidad.compute(new ClaveEspecialidad(especialidad, dia), (k, actual) -> {
+                var copia = actual == null ? new int[HORAS_DE_ATENCION] : actual.clone();
+                var vacio = true;
+                for (int i = 0; i < HORAS_DE_ATENCION; i++) {
+                    if ((horas & (1 << i)) != 0) {
+                        copia[i] = Math.max(0, copia[i] + delta);
+                    }
+                    vacio &= copia[i] == 0;
+                }
+                return vacio ? null : copia;
+            });
+        }
+    }
+
+    private record ClaveAgenda(Long id, LocalDate dia) {}
+
+    private record ClaveEspecialidad(Especialidad especialidad, LocalDate dia) {}
+}
@@ -0,0 +1,182 @@
+package com.voll.api.domain.consulta.bloqueo;
+
+import com.voll.api.domain.ValidacionException;
+import com.voll.api.domain.medico.Especialidad;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/*
+ * Registro de locks por franjas (striped locks) para serializar, dentro de este nodo,
+ * las reservas que compiten por la misma agenda antes de abrir la transacción.
+ *
+ * La clave es (médico, día) o, cuando la reserva no informa médico, (especialidad, día).
+ * Cada clave se asigna a uno de N ReentrantLock fijos según su hash: dos reservas para
+ * el mismo médico y día siempre esperan al mismo lock, mientras que médicos distintos
+ * casi siempre caen en locks distintos y avanzan en paralelo. La cantidad de locks
+ * es fija, así que la memoria no crece con la cantidad de médicos.
+ *
+ * Una reserva con médico asignado automáticamente toma primero el lock de (especialidad, día),
+ * elige el médico y después toma también el de (médico, día), así se serializa con las reservas
+ * que informan ese médico. Los locks de especialidades y de médicos son dos arreglos separados
+ * y siempre se toman en ese orden, por eso dos reservas nunca se esperan en círculo.
+ * Una reserva en lote toma todos sus locks antes de empezar, en ese mismo orden (ver conLote).
+ *
+ * El lock no reemplaza a la restricción única de la base de datos, que sigue siendo
+ * la garantía entre varios nodos; solo evita que las transacciones de un mismo nodo
+ * se acumulen sobre los mismos registros de MySQL.
+ *
+ * Métricas en Micrometer:
+ * - consulta.reserva.bloqueo.espera     (Timer)   : tiempo esperando el lock.
+ * - consulta.reserva.bloqueo.contencion (Counter) : reservas que encontraron el lock tomado.
+ * - consulta.reserva.bloqueo.timeout    (Counter) : reservas rechazadas por superar la espera máxima.
+ * - consulta.reserva.bloqueo.en_espera  (Gauge)   : hilos esperando algún lock en este momento.
+ */
+@Component
+public class BloqueosReserva {
+
+    @Value("${api.consulta.bloqueo.franjas:256}")
+    private int franjas;
+    @Value("${api.consulta.bloqueo.espera-maxima-ms:2000}")
+    private long esperaMaximaMs;
+    @Autowired
+    private MeterRegistry registry;
+
+    private ReentrantLock[] locksMedicos;
+    private ReentrantLock[] locksEspecialidades;
+    private Timer espera;
+    private Counter contencion;
+    private Counter timeouts;
+
+    @PostConstruct
+    void inicializar() {
+        /* Potencia de dos para elegir la franja con una máscara de bits */
+        var cantidad = Integer.highestOneBit(Math.max(1, franjas - 1)) << 1;
+        locksMedicos = crearLocks(cantidad);
+        locksEspecialidades = crearLocks(cantidad);
+        espera = Timer.builder("consulta.reserva.bloqueo.espera").register(registry);
+        contencion = Counter.builder("consulta.reserva.bloqueo.contencion").register(registry);
+        timeouts = Counter.builder("consulta.reserva.bloqueo.timeout").register(registry);
+        Gauge.builder("consulta.reserva.bloqueo.en_espera", this,
+                        b -> Stream.of(b.locksMedicos, b.locksEspecialidades)
+                                .flatMap(Arrays::stream)
+                                .mapToInt(ReentrantLock::getQueueLength)
+                                .sum())
+                .register(registry);
+    }
+
+    /*
+     * Ejecuta la acción con el lock de la franja del médico y día indicados.
+     */
+    public <T> T conMedico(Long idMedico, LocalDate dia, Supplier<T> accion) {
+        return ejecutar(locksMedicos, Objects.hash(idMedico, dia), accion);
+    }
+
+    /*
+     * Ejecuta la acción con el lock de la franja de la especialidad y día indicados.
+     * Se usa cuando el médico se asigna automáticamente y todavía no se conoce; dentro de la
+     * acción, una vez elegido el médico, se toma además su lock con conMedico.
+     * Recibe la Especialidad ya convertida: "Ortopedia" y "ortopedia" comparten el mismo lock.
+     */
+    public <T> T conEspecialidad(Especialidad especialidad, LocalDate dia, Supplier<T> accion) {
+        return ejecutar(locksEspecialidades, Objects.hash(especialidad, dia), accion);
+    }
+
+    /*
+     * Ejecuta la acción con los locks de todas las especialidades y médicos indicados, para una
+     * reserva en lote. Respeta el mismo orden que una reserva individual (primero especialidades,
+     * después médicos) y dentro de cada arreglo toma las franjas de menor a mayor, así dos lotes
+     * que comparten franjas no se esperan en círculo. Varias claves en la misma franja toman su lock una vez.
+     */
+    public <T> T conLote(Collection<Clave<Especialidad>> especialidades, Collection<Clave<Long>> medicos, Supplier<T> accion) {
+        var tomados = new ArrayList<ReentrantLock>();
+        try {
+            for (var lock : ordenados(locksEspecialidades, especialidades)) {
+                tomar(lock);
+                tomados.add(lock);
+            }
+            for (var lock : ordenados(locksMedicos, medicos)) {
+                tomar(lock);
+                tomados.add(lock);
+            }
+            return accion.get();
+        } finally {
+            for (int i = tomados.size() - 1; i >= 0; i--) {
+                tomados.get(i).unlock();
+            }
+        }
+    }
+
+    /* Un médico o especialidad (id) y el día de la agenda que se reserva */
+    public record Clave<K>(K id, LocalDate dia) {}
+
+    private static ReentrantLock[] crearLocks(int cantidad) {
+        var locks = new ReentrantLock[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        return locks;
+    }
+
+    private <T> T ejecutar(ReentrantLock[] locks, int hash, Supplier<T> accion) {
+        var lock = locks[franja(locks, hash)];
+        tomar(lock);
+        try {
+            return accion.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static List<ReentrantLock> ordenados(ReentrantLock[] locks, Collection<? extends Clave<?>> claves) {
+        return claves.stream()
+                .mapToInt(c -> franja(locks, Objects.hash(c.id(), c.dia())))
+                .distinct()
+                .sorted()
+                .mapToObj(i -> locks[i])
+                .toList();
+    }
+
+    private static int franja(ReentrantLock[] locks, int hash) {
+        return dispersar(hash) & (locks.length - 1);
+    }
+
+    private void tomar(ReentrantLock lock) {
+        if (!lock.tryLock()) {
+            contencion.increment();
+            var inicio = System.nanoTime();
+            try {
+                if (!lock.tryLock(esperaMaximaMs, TimeUnit.MILLISECONDS)) {
+                    timeouts.increment();
+                    throw new ValidacionException("Hay demasiadas reservas simultáneas para ese horario, intente nuevamente");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ValidacionException("La reserva fue interrumpida, intente nuevamente");
+            } finally {
+                espera.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    /* Mezcla los bits altos del hash para repartir mejor las claves entre franjas */
+    private static int dispersar(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,22 @@
+package com.voll.api.domain.consulta.dto_consulta;
+
+import com.voll.api.domain.consulta.historico.ConsultaHistorial;
+
+import java.time.LocalDateTime;
+
+public record ConsultaHistorialDTO(Long id,
+                                   Long idMedico,
+                                   Long idPaciente,
+                                   LocalDateTime fecha,
+                                   String estado) {
+
+    public ConsultaHistorialDTO(ConsultaHistorial consulta) {
+        this(
+                consulta.getId(),
+                consulta.getIdMedico(),
+                consulta.getIdPaciente(),
+                consulta.getFecha(),
+                consulta.getEstado()
+        );
+    }
+}
@@ -0,0 +1,20 @@
+package com.voll.api.domain.consulta.dto_consulta;
+
+import com.voll.api.domain.medico.Especialidad;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+/*
+ * Por cada hora de atención del día, cuántos médicos activos de la especialidad siguen libres.
+ */
+public record DisponibilidadEspecialidadDTO(
+        Especialidad especialidad,
+        LocalDate fecha,
+        int medicosActivos,
+        List<HoraDisponible> horas
+) {
+
+    public record HoraDisponible(LocalTime hora, int medicosLibres) {}
+}
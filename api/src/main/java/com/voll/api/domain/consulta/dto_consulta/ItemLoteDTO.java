@@ -0,0 +1,21 @@
+package com.voll.api.domain.consulta.dto_consulta;
+
+/*
+ * Resultado de una consulta dentro de un lote.
+ * - indice: posición de la consulta en la request.
+ * - consulta: la consulta reservada, null si falló.
+ * - error: motivo del rechazo, null si se reservó.
+ */
+public record ItemLoteDTO(int indice,
+                          boolean exito,
+                          ConsultaDTO consulta,
+                          String error) {
+
+    public static ItemLoteDTO reservada(int indice, ConsultaDTO consulta) {
+        return new ItemLoteDTO(indice, true, consulta, null);
+    }
+
+    public static ItemLoteDTO rechazada(int indice, String error) {
+        return new ItemLoteDTO(indice, false, null, error);
+    }
+}
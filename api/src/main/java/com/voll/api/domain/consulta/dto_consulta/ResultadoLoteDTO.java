@@ -0,0 +1,16 @@
+package com.voll.api.domain.consulta.dto_consulta;
+
+import java.util.List;
+
+public record ResultadoLoteDTO(int reservadas,
+                               int rechazadas,
+                               List<ItemLoteDTO> resultados) {
+
+    public ResultadoLoteDTO(List<ItemLoteDTO> resultados) {
+        this(
+                (int) resultados.stream().filter(ItemLoteDTO::exito).count(),
+                (int) resultados.stream().filter(item -> !item.exito()).count(),
+                resultados
+        );
+    }
+}
@@ -0,0 +1,128 @@
+package com.voll.api.domain.consulta.historico;
+
+import com.voll.api.domain.consulta.ConsultaRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/*
+ * Mueve de "consultas" a "consultas_historico" las consultas canceladas y las que ya pasaron,
+ * para que la tabla que consultan las reservas y sus validaciones solo tenga la agenda vigente.
+ *
+ * Se archivan las consultas canceladas y las activas anteriores a api.consultas.archivo.dias-pasados
+ * días atrás (a partir de la medianoche). Nunca se archivan las de hoy: el IndiceAgenda se
+ * reconstruye desde el día de hoy y la regla de una consulta por paciente y día las necesita.
+ *
+ * Cada lote (api.consultas.archivo.tamanio-lote) es una transacción corta en READ COMMITTED:
+ * bloquea las filas con SKIP LOCKED, las copia al histórico y las borra. Así varios nodos pueden
+ * ejecutar el job a la vez sin esperarse, y las reservas no quedan bloqueadas detrás de un
+ * DELETE grande. Entre lotes se hace una pausa para no saturar la primaria ni la replicación.
+ *
+ * Métricas en Micrometer:
+ * - consultas.archivo.lote      (Timer)   : duración de cada lote.
+ * - consultas.archivo.registros (Counter) : consultas movidas al histórico.
+ * Al terminar cada ejecución se registra en el log el total movido y las consultas por segundo.
+ */
+@Component
+public class ArchivoConsultas {
+
+    private static final Logger log = LoggerFactory.getLogger(ArchivoConsultas.class);
+
+    @Value("${api.consultas.archivo.dias-pasados:7}")
+    private int diasPasados;
+    @Value("${api.consultas.archivo.tamanio-lote:1000}")
+    private int tamanioLote;
+    @Value("${api.consultas.archivo.pausa-ms:100}")
+    private long pausaMs;
+    @Autowired
+    private ConsultaRepository repository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private EntityManager em;
+    @Autowired
+    private MeterRegistry registry;
+
+    private TransactionTemplate transaccionLote;
+    private Timer tiempoLote;
+    private Counter archivadas;
+
+    @PostConstruct
+    void inicializar() {
+        transaccionLote = new TransactionTemplate(transactionManager);
+        tiempoLote = Timer.builder("consultas.archivo.lote").register(registry);
+        archivadas = Counter.builder("consultas.archivo.registros").register(registry);
+    }
+
+    /* Retorna la cantidad de consultas archivadas */
+    @Scheduled(cron = "${api.consultas.archivo.cron:0 30 3 * * *}")
+    public long archivar() {
+        var limite = LocalDate.now().minusDays(Math.max(0, diasPasados)).atStartOfDay();
+        var inicio = System.nanoTime();
+        long total = 0;
+        int lotes = 0;
+        int movidas;
+        do {
+            movidas = archivarLote(limite);
+            total += movidas;
+            lotes++;
+        } while (movidas == tamanioLote && pausar());
+
+        var segundos = (System.nanoTime() - inicio) / 1_000_000_000.0;
+        log.info("Archivo de consultas anteriores a {}: {} consultas en {} lotes, {} s ({} consultas/s)",
+                limite, total, lotes, String.format("%.1f", segundos), String.format("%.0f", total / Math.max(segundos, 0.001)));
+        return total;
+    }
+
+    private int archivarLote(LocalDateTime limite) {
+        int movidas = tiempoLote.record(() -> transaccionLote.execute(estado -> {
+            leerConfirmadas();
+            var ids = repository.bloquearArchivables(limite, tamanioLote);
+            if (ids.isEmpty()) {
+                return 0;
+            }
+            repository.copiarAlHistorico(ids);
+            repository.eliminarArchivadas(ids);
+            return ids.size();
+        }));
+        archivadas.increment(movidas);
+        return movidas;
+    }
+
+    /*
+     * READ COMMITTED para el lote: en REPEATABLE READ InnoDB también bloquearía los huecos del índice
+     * recorrido (gap locks). Se aplica sobre la conexión antes de la primera sentencia y no con
+     * TransactionTemplate.setIsolationLevel, que JpaTransactionManager rechaza cuando Hibernate libera
+     * la conexión al terminar cada transacción (réplica habilitada, ver DataSourceReplicaConfiguration).
+     * Hikari restablece el nivel de aislamiento al devolver la conexión al pool.
+     */
+    private void leerConfirmadas() {
+        em.unwrap(Session.class).doWork(conexion -> conexion.setTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED));
+    }
+
+    /* Retorna false si el hilo fue interrumpido (la aplicación se está deteniendo) */
+    private boolean pausar() {
+        try {
+            Thread.sleep(pausaMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
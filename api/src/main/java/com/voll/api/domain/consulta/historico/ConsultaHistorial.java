@@ -0,0 +1,21 @@
+package com.voll.api.domain.consulta.historico;
+
+import java.time.LocalDateTime;
+
+/*
+ * Fila del historial de consultas (ConsultaRepository.historialMedico / historialPaciente),
+ * leída de "consultas" o de "consultas_historico".
+ */
+public interface ConsultaHistorial {
+
+    Long getId();
+
+    Long getIdMedico();
+
+    Long getIdPaciente();
+
+    LocalDateTime getFecha();
+
+    /* ACTIVA o CANCELADA */
+    String getEstado();
+}
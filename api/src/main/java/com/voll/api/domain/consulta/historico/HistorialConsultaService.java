@@ -0,0 +1,35 @@
+package com.voll.api.domain.consulta.historico;
+
+import com.voll.api.domain.ValidacionException;
+import com.voll.api.domain.consulta.ConsultaRepository;
+import com.voll.api.domain.consulta.dto_consulta.ConsultaHistorialDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+public class HistorialConsultaService {
+
+    @Autowired
+    private ConsultaRepository repository;
+
+    /*
+    * Historial de consultas de un médico o de un paciente (exactamente uno de los dos),
+    * incluidas las que ArchivoConsultas ya movió a "consultas_historico".
+    * El orden es siempre de la más reciente a la más antigua; el sort del Pageable se ignora.
+    */
+    @Transactional(readOnly = true)
+    public Slice<ConsultaHistorialDTO> historial(Long idMedico, Long idPaciente, Pageable pageable) {
+        if ((idMedico == null) == (idPaciente == null)) {
+            throw new ValidacionException("Indique el médico o el paciente del historial, pero no ambos");
+        }
+        var pagina = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize());
+        var consultas = idMedico != null
+                ? repository.historialMedico(idMedico, pagina)
+                : repository.historialPaciente(idPaciente, pagina);
+        return consultas.map(ConsultaHistorialDTO::new);
+    }
+}
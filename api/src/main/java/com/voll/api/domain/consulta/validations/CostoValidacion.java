@@ -0,0 +1,16 @@
+package com.voll.api.domain.consulta.validations;
+
+/*
+ * Costo de ejecutar un validador, de menor a mayor.
+ * PipelineValidaciones ejecuta primero los validadores más baratos,
+ * así una request inválida se rechaza antes de llegar a la base de datos.
+ *
+ * - PURA: solo usa los datos de la request.
+ * - MEMORIA: consulta estructuras en memoria (IndiceAgenda).
+ * - BASE_DE_DATOS: necesita datos que el contexto carga de la base de datos.
+ */
+public enum CostoValidacion {
+    PURA,
+    MEMORIA,
+    BASE_DE_DATOS
+}
@@ -0,0 +1,72 @@
+package com.voll.api.domain.consulta.validations;
+
+import com.voll.api.domain.ValidacionException;
+import com.voll.api.domain.consulta.ReservaConsultaContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Ejecuta los validadores de consultas ordenados por su CostoValidacion (el más barato primero)
+ * y se detiene en el primero que rechaza la reserva.
+ *
+ * Por cada validador registra en Micrometer:
+ * - consulta.validacion          (Timer)   : tiempo de ejecución.
+ * - consulta.validacion.rechazos (Counter) : reservas rechazadas.
+ * Ambos con el tag "validador" = nombre de la clase.
+ */
+@Component
+public class PipelineValidaciones {
+
+    @Autowired
+    private List<ValidadorDeConsultas> validadores;
+    @Autowired
+    private MeterRegistry registry;
+
+    private List<Etapa> etapas;
+
+    @PostConstruct
+    void ordenar() {
+        etapas = validadores.stream()
+                .sorted(Comparator.comparing(ValidadorDeConsultas::costo))
+                .map(this::etapa)
+                .toList();
+    }
+
+    public void validar(ReservaConsultaContext contexto) {
+        for (var etapa : etapas) {
+            var inicio = System.nanoTime();
+            try {
+                etapa.validador().validar(contexto);
+            } catch (ValidacionException e) {
+                etapa.rechazos().increment();
+                throw e;
+            } finally {
+                etapa.tiempo().record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    private Etapa etapa(ValidadorDeConsultas validador) {
+        var nombre = validador.getClass().getSimpleName();
+        return new Etapa(
+                validador,
+                Timer.builder("consulta.validacion")
+                        .tag("validador", nombre)
+                        .tag("costo", validador.costo().name())
+                        .register(registry),
+                Counter.builder("consulta.validacion.rechazos")
+                        .tag("validador", nombre)
+                        .register(registry)
+        );
+    }
+
+    private record Etapa(ValidadorDeConsultas validador, Timer tiempo, Counter rechazos) {}
+}
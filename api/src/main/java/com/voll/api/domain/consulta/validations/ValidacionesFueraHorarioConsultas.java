@@ -1,43 +1,33 @@
 package com.voll.api.domain.consulta.validations;
 
 import com.voll.api.domain.ValidacionException;
-import com.voll.api.domain.consulta.ReservaConsultaData;
+import com.voll.api.domain.consulta.ReservaConsultaContext;
+import com.voll.api.domain.consulta.agenda.HorarioAtencion;
 import org.springframework.stereotype.Component;
 
-import java.time.DayOfWeek;
 
 @Component
 public class ValidacionesFueraHorarioConsultas implements ValidadorDeConsultas{
 
-    public void validar(ReservaConsultaData datos){
-
-        /* Guarda la fecha de la consulta entregada por el Front-end */
-        var fechaConsulta = datos.fecha();
+    @Override
+    public CostoValidacion costo() {
+        return CostoValidacion.PURA;
+    }
 
-        /*
-        Guarda el valor booleano.
-        True si es dia indicado es Domingo, False sí no lo es
-        */
-        var domingo = fechaConsulta.getDayOfWeek().equals(DayOfWeek.SUNDAY);
+    public void validar(ReservaConsultaContext contexto){
 
-        /*
-        Guarda el valor booleano.
-        True si la hora indicáda por el usuario es anterior a la hora de apertura
-        False sí no es así
-        */
-        var horarioDeAntesDeApertura = fechaConsulta.getHour() < 7;
+        /* Guarda la fecha de la consulta entregada por el Front-end */
+        var fechaConsulta = contexto.datos().fecha();
 
         /*
-        Guarda el valor booleano.
-        True si la hora indicáda por el usuario es posterior o igual a la hora de cierre
-        False sí no es así.
+        Las reglas del horario de atención (lunes a sábado, consultas que comienzan
+        entre las 7 y las 18) están en HorarioAtencion, compartidas con el cálculo
+        de disponibilidad de los médicos.
 
         Aunque la hora de cierre sea a las 19, las consultas durán una hora
         por lo mismo por máximo un usuario puede reservar a las 18.
-
-        Para que de esta manera se respete el horario de cierre
         */
-        var horaioDespuesDeCierre = fechaConsulta.getHour() > 18;
+        var dentroDelHorario = HorarioAtencion.dentroDelHorario(fechaConsulta);
 
 
         /*
@@ -47,8 +37,13 @@ public class ValidacionesFueraHorarioConsultas implements ValidadorDeConsultas{
         - Es posterior o igual a la hora de cierre
         Lanzaremos una Exception propia, indicando que son horarios fuera de atención.
         */
-        if(domingo || horarioDeAntesDeApertura || horaioDespuesDeCierre){
+        if(!dentroDelHorario){
             throw new ValidacionException("Horario seleccionado fuera de atención");
         }
+
+        /* Las consultas duran una hora y comienzan en punto (ver HorarioAtencion.comienzaEnPunto) */
+        if(!HorarioAtencion.comienzaEnPunto(fechaConsulta)){
+            throw new ValidacionException("Las consultas deben comenzar a la hora en punto");
+        }
     }
 }
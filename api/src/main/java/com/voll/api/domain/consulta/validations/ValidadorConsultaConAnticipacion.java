@@ -1,7 +1,8 @@
 package com.voll.api.domain.consulta.validations;
 
 import com.voll.api.domain.ValidacionException;
-import com.voll.api.domain.consulta.ReservaConsultaData;
+import com.voll.api.domain.consulta.ReservaConsultaContext;
+import com.voll.api.domain.consulta.agenda.HorarioAtencion;
 import org.springframework.stereotype.Component;
 import java.time.Duration;
 import java.time.LocalDateTime;
@@ -9,16 +10,21 @@ import java.time.LocalDateTime;
 @Component
 public class ValidadorConsultaConAnticipacion implements ValidadorDeConsultas{
 
-    public void validar(ReservaConsultaData datos){
+    @Override
+    public CostoValidacion costo() {
+        return CostoValidacion.PURA;
+    }
+
+    public void validar(ReservaConsultaContext contexto){
 
-        var fechaConsulta = datos.fecha();
+        var fechaConsulta = contexto.datos().fecha();
         var ahora = LocalDateTime.now();
 
         /* Guarda la diferencia en minutos entre la hora actual y la recibida por el usuario. */
         var diferenciaEnMinutos = Duration.between(ahora, fechaConsulta).toMinutes();
 
         /* Si la reserva no se hace extricatemnte con 30 minutos de anticipación, no se podrá hacer la reserva. */
-        if(diferenciaEnMinutos < 30){
+        if(diferenciaEnMinutos < HorarioAtencion.MINUTOS_ANTICIPACION){
             throw new ValidacionException("Tiene que hacer la reserva con al menos 30 minutos de anticipación");
         }
 
@@ -1,7 +1,16 @@
 package com.voll.api.domain.consulta.validations;
 
-import com.voll.api.domain.consulta.ReservaConsultaData;
+import com.voll.api.domain.consulta.ReservaConsultaContext;
 
+/*
+ * Cada validador recibe el contexto de la reserva,
+ * por lo que no necesita inyectar repositorios ni consultar la base de datos.
+ *
+ * costo() indica qué tan caro es el validador; PipelineValidaciones lo usa
+ * para ejecutar primero los más baratos.
+ */
 public interface ValidadorDeConsultas {
-    void validar(ReservaConsultaData datos);
+    void validar(ReservaConsultaContext contexto);
+
+    CostoValidacion costo();
 }
@@ -1,35 +1,38 @@
 package com.voll.api.domain.consulta.validations;
 
 import com.voll.api.domain.ValidacionException;
-import com.voll.api.domain.consulta.ReservaConsultaData;
-import com.voll.api.domain.medico.MedicoRepository;
-import org.springframework.beans.factory.annotation.Autowired;
+import com.voll.api.domain.consulta.ReservaConsultaContext;
 import org.springframework.stereotype.Component;
 
 @Component
 public class ValidadorMedicoActivo implements ValidadorDeConsultas{
 
-    @Autowired
-    private MedicoRepository repository;
+    @Override
+    public CostoValidacion costo() {
+        return CostoValidacion.BASE_DE_DATOS;
+    }
 
-    public void validar(ReservaConsultaData datos){
+    public void validar(ReservaConsultaContext contexto){
 
         /*
         Si el ID del médico es null, entonces se seleccionará aleatoriamente un médico.
         hacemos return para que se encargue la validación del médico aleatorio.
         */
-        if(datos.idMedico() == null){
+        if(contexto.datos().idMedico() == null){
             return;
         }
 
+        /* El contexto carga existencia y estado del médico con una sola consulta */
+        if (!contexto.medicoExiste()){
+            throw new ValidacionException("No existe un médico con el id informado");
+        }
+
         /*
-        Guarda un valor booleano.
-        Se encarga de preguntar en el repository si el médico se encuentra activo
+        El estado del médico viene en el contexto de la reserva
         - True : Si lo está
         - False : No lo está
         */
-        var medicoEstaActivo = repository.findActivoById(datos.idMedico());
-        if (!medicoEstaActivo){
+        if (!contexto.medicoActivo()){
             throw new ValidacionException("No se puede realizar una consulta con un médico que NO se encuentre ACTIVO");
         }
     }
@@ -1,23 +1,24 @@
 package com.voll.api.domain.consulta.validations;
 
 import com.voll.api.domain.ValidacionException;
-import com.voll.api.domain.consulta.ConsultaRepository;
-import com.voll.api.domain.consulta.ReservaConsultaData;
-import org.springframework.beans.factory.annotation.Autowired;
+import com.voll.api.domain.consulta.ReservaConsultaContext;
 import org.springframework.stereotype.Component;
 
 @Component
 public class ValidadorMedicoConOtraConsultaEnElMismoHorario implements ValidadorDeConsultas{
 
-    @Autowired
-    private ConsultaRepository repository;
+    @Override
+    public CostoValidacion costo() {
+        return CostoValidacion.MEMORIA;
+    }
 
-    public void validar(ReservaConsultaData datos){
+    public void validar(ReservaConsultaContext contexto){
 
         /*
-         * Esta variable almacena el resultado de una derived query basada en `existsBy`,
-         * la cual verifica si el médico indicado ya tiene una consulta agendada
-         * en la fecha y hora especificadas.
+         * Esta variable almacena el resultado de revisar las horas ocupadas del médico
+         * que trae el contexto de la reserva (cargadas del IndiceAgenda en memoria),
+         * verificando si el médico indicado ya tiene una consulta agendada
+         * en la hora de la fecha especificada.
          *
          * El objetivo de esta validación es garantizar la regla de negocio de
          * no permitir que un médico tenga más de una consulta en el mismo
@@ -27,10 +28,7 @@ public class ValidadorMedicoConOtraConsultaEnElMismoHorario implements Validador
          *   y se puede agendar la nueva consulta.
          * - Si ya existe una consulta, se lanzará una excepción.
          */
-        var medicoTieneOtraConsultaEnElMismoHorario = repository.existsByMedicoIdAndFecha(
-                datos.idMedico(),
-                datos.fecha()
-        );
+        var medicoTieneOtraConsultaEnElMismoHorario = contexto.medicoOcupadoEnLaHora();
 
         /*
          * Se lanza una excepción cuando la validación detecta que el médico
@@ -1,28 +1,30 @@
 package com.voll.api.domain.consulta.validations;
 
 import com.voll.api.domain.ValidacionException;
-import com.voll.api.domain.consulta.ReservaConsultaData;
-import com.voll.api.domain.paciente.PacienteRepositoy;
-import org.springframework.beans.factory.annotation.Autowired;
+import com.voll.api.domain.consulta.ReservaConsultaContext;
 import org.springframework.stereotype.Component;
 
 @Component
 public class ValidadorPacienteActivo implements ValidadorDeConsultas{
 
-    /* Inyección de datos del PacienteRepository*/
-    @Autowired
-    PacienteRepositoy repositoy;
+    @Override
+    public CostoValidacion costo() {
+        return CostoValidacion.BASE_DE_DATOS;
+    }
+
+    public void validar(ReservaConsultaContext contexto){
 
-    public void validar(ReservaConsultaData datos){
+        /* El contexto carga existencia y estado del paciente con una sola consulta */
+        if(!contexto.pacienteExiste()){
+            throw new ValidacionException("No existe un paciente con el id informado");
+        }
 
         /*
-        Guarda un valor booleano.
-        Se encarga de preguntar en el repository si el paciente se encuentra activo
+        El estado del paciente viene en el contexto de la reserva
         - True : Si lo está
         - False : No lo está
         */
-        var pacienteEstaActivo = repositoy.findActivoById(datos.idPaciente());
-        if(!pacienteEstaActivo){
+        if(!contexto.pacienteActivo()){
             throw new ValidacionException("No se puede realizar una consulta con un paciente que NO se encuentre ACTIVO");
         }
     }
@@ -0,0 +1,147 @@
+package com.voll.api.domain.exportacion;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/*
+ * Escribe el resultado de una consulta en NDJSON o CSV a medida que se lee de la base de datos.
+ *
+ * La consulta debe retornar un Stream (Spring Data lo recorre con un ScrollableResults de Hibernate,
+ * un cursor de solo avance) y proyectar a DTO: cada fila se escribe y se descarta, sin entidades
+ * en el contexto de persistencia. Con el fetch size FETCH_EN_STREAMING en la consulta, el driver de
+ * MySQL recibe las filas de a una en lugar de cargar todo el resultado en memoria.
+ *
+ * Se ejecuta en una transacción de solo lectura propia: el Stream tiene que recorrerse y cerrarse
+ * dentro de ella, y la escritura de un StreamingResponseBody ocurre fuera del hilo de la request.
+ */
+@Component
+public class ExportadorEnStreaming {
+
+    /*
+     * Fetch size del @QueryHints de cada consulta exportada. Integer.MIN_VALUE es el valor con el que
+     * Connector/J lee el resultado en streaming, fila por fila, solo en esa sentencia. Así no hace falta
+     * useCursorFetch=true en la URL, que abriría un cursor en el servidor para todas las consultas.
+     * Mientras se recorre, la conexión no puede ejecutar otra sentencia: la transacción de la exportación solo lee.
+     */
+    public static final String FETCH_EN_STREAMING = "" + Integer.MIN_VALUE;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate lectura;
+
+    @PostConstruct
+    public void inicializar() {
+        lectura = new TransactionTemplate(transactionManager);
+        lectura.setReadOnly(true);
+    }
+
+    public <T> void exportar(OutputStream salida, FormatoExportacion formato, Supplier<Stream<T>> consulta) {
+        lectura.executeWithoutResult(estado -> {
+            /* La salida es de la response: se vacía el buffer al terminar pero no se cierra */
+            var escritor = new BufferedWriter(new OutputStreamWriter(salida, StandardCharsets.UTF_8));
+            try (var registros = consulta.get()) {
+                var formateador = formato == FormatoExportacion.CSV ? new EscritorCsv(escritor) : new EscritorNdjson(escritor);
+                for (var iterador = registros.iterator(); iterador.hasNext(); ) {
+                    formateador.escribir(iterador.next());
+                }
+                escritor.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException("No se pudo escribir la exportación", e);
+            }
+        });
+    }
+
+    private interface EscritorRegistros {
+        void escribir(Object registro) throws IOException;
+    }
+
+    private class EscritorNdjson implements EscritorRegistros {
+        private final Writer escritor;
+        /* El ObjectMapper no debe cerrar el Writer después de cada registro */
+        private final ObjectWriter json = objectMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+        EscritorNdjson(Writer escritor) {
+            this.escritor = escritor;
+        }
+
+        @Override
+        public void escribir(Object registro) throws IOException {
+            json.writeValue(escritor, registro);
+            escritor.write('\n');
+        }
+    }
+
+    /*
+     * CSV con encabezado tomado del primer registro. Usa las mismas convenciones que la importación:
+     * nombres de los campos del JSON y los objetos anidados aplanados con punto ("direccion.calle").
+     */
+    private class EscritorCsv implements EscritorRegistros {
+        private final Writer escritor;
+        private List<String> encabezado;
+
+        EscritorCsv(Writer escritor) {
+            this.escritor = escritor;
+        }
+
+        @Override
+        public void escribir(Object registro) throws IOException {
+            var celdas = new LinkedHashMap<String, String>();
+            aplanar("", objectMapper.valueToTree(registro), celdas);
+            if (encabezado == null) {
+                encabezado = new ArrayList<>(celdas.keySet());
+                escribirLinea(encabezado);
+            }
+            escribirLinea(encabezado.stream().map(campo -> celdas.getOrDefault(campo, "")).toList());
+        }
+
+        private void aplanar(String prefijo, JsonNode nodo, Map<String, String> celdas) {
+            if (nodo.isObject()) {
+                nodo.fields().forEachRemaining(campo -> aplanar(prefijo + campo.getKey() + ".", campo.getValue(), celdas));
+                return;
+            }
+            var campo = prefijo.substring(0, prefijo.length() - 1);
+            celdas.put(campo, nodo.isNull() ? "" : nodo.asText());
+        }
+
+        private void escribirLinea(List<String> celdas) throws IOException {
+            for (int i = 0; i < celdas.size(); i++) {
+                if (i > 0) {
+                    escritor.write(',');
+                }
+                escritor.write(escapar(celdas.get(i)));
+            }
+            escritor.write('\n');
+        }
+
+        private String escapar(String celda) {
+            if (celda.indexOf(',') < 0 && celda.indexOf('"') < 0 && celda.indexOf('\n') < 0 && celda.indexOf('\r') < 0) {
+                return celda;
+            }
+            return '"' + celda.replace("\"", "\"\"") + '"';
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.voll.api.domain.exportacion;
+
+import com.voll.api.domain.ValidacionException;
+import org.springframework.http.MediaType;
+
+/*
+ * Formatos de los endpoints de exportación, elegidos con el parámetro "formato" (ndjson por defecto).
+ * Son los mismos que acepta la importación: un archivo exportado se puede volver a importar.
+ */
+public enum FormatoExportacion {
+    NDJSON(MediaType.parseMediaType("application/x-ndjson"), "ndjson"),
+    CSV(MediaType.parseMediaType("text/csv;charset=UTF-8"), "csv");
+
+    private final MediaType mediaType;
+    private final String extension;
+
+    FormatoExportacion(MediaType mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    public MediaType mediaType() {
+        return mediaType;
+    }
+
+    public String nombreArchivo(String nombre) {
+        return nombre + "." + extension;
+    }
+
+    public static FormatoExportacion desde(String formato) {
+        for (var valor : values()) {
+            if (valor.extension.equalsIgnoreCase(formato)) {
+                return valor;
+            }
+        }
+        throw new ValidacionException("Formato no soportado: use ndjson o csv");
+    }
+}
@@ -0,0 +1,44 @@
+package com.voll.api.domain.exportacion;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.Duration;
+
+/*
+ * Arma la respuesta de los endpoints GET .../export: el tipo de contenido y el nombre del archivo
+ * según el formato, y el cuerpo como StreamingResponseBody.
+ *
+ * El cuerpo se escribe de forma asíncrona y una exportación grande puede tardar minutos, así que
+ * se extiende el timeout asíncrono solo para esta request (api.exportacion.tiempo-maximo-minutos).
+ * El resto de la API, por ejemplo el /login asíncrono, conserva el timeout por defecto del servidor.
+ */
+@Component
+public class RespuestaExportacion {
+
+    @Value("${api.exportacion.tiempo-maximo-minutos:30}")
+    private long tiempoMaximoMinutos;
+
+    public ResponseEntity<StreamingResponseBody> de(FormatoExportacion formato, String nombre, StreamingResponseBody cuerpo) {
+        /*
+         * RequestMappingHandlerAdapter ya asignó el timeout por defecto a la request asíncrona antes de llamar
+         * al controller; se reemplaza aquí, antes de que el StreamingResponseBody inicie el procesamiento asíncrono.
+         */
+        var request = ((ServletRequestAttributes) RequestContextHolder.currentRequestAttributes()).getRequest();
+        var asyncWebRequest = WebAsyncUtils.getAsyncManager(request).getAsyncWebRequest();
+        if (asyncWebRequest != null) {
+            asyncWebRequest.setTimeout(Duration.ofMinutes(tiempoMaximoMinutos).toMillis());
+        }
+        return ResponseEntity.ok()
+                .contentType(formato.mediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(formato.nombreArchivo(nombre)).build().toString())
+                .body(cuerpo);
+    }
+}
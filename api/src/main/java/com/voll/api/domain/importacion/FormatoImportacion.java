@@ -0,0 +1,34 @@
+package com.voll.api.domain.importacion;
+
+import com.voll.api.domain.ValidacionException;
+import org.springframework.http.MediaType;
+
+/*
+ * Formatos aceptados por los endpoints de importación, según el Content-Type de la request.
+ *
+ * - NDJSON: un objeto JSON por línea, con los mismos campos que el POST individual.
+ * - CSV   : la primera línea es el encabezado con los nombres de los campos del JSON;
+ *           los campos anidados se escriben con punto, por ejemplo "direccion.codigo_postal".
+ */
+public enum FormatoImportacion {
+    NDJSON,
+    CSV;
+
+    public static final String NDJSON_VALUE = "application/x-ndjson";
+    public static final String CSV_VALUE = "text/csv";
+
+    public static FormatoImportacion desde(String contentType) {
+        if (contentType == null || contentType.isBlank()) {
+            throw new ValidacionException("Falta el Content-Type: use " + NDJSON_VALUE + " o " + CSV_VALUE);
+        }
+        var mediaType = MediaType.parseMediaType(contentType);
+        var tipo = mediaType.getType() + "/" + mediaType.getSubtype();
+        if (NDJSON_VALUE.equalsIgnoreCase(tipo) || "application/ndjson".equalsIgnoreCase(tipo)) {
+            return NDJSON;
+        }
+        if (CSV_VALUE.equalsIgnoreCase(tipo)) {
+            return CSV;
+        }
+        throw new ValidacionException("Formato no soportado: use " + NDJSON_VALUE + " o " + CSV_VALUE);
+    }
+}
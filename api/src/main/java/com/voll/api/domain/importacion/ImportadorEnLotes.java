@@ -0,0 +1,288 @@
+package com.voll.api.domain.importacion;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.voll.api.domain.ValidacionException;
+import com.voll.api.domain.importacion.ResultadoImportacionDTO.ErrorImportacion;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import jakarta.validation.Validator;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/*
+ * Importa registros desde un cuerpo NDJSON o CSV leyéndolo en streaming, registro por registro.
+ *
+ * Cada registro se convierte al mismo record de entrada que usa el POST individual (MedicoData,
+ * PacienteData...) y se valida con Bean Validation. Los válidos se acumulan hasta completar
+ * un lote (api.importacion.tamanio-lote) que se guarda en su propia transacción; después del
+ * flush se limpia el contexto de persistencia. Así en memoria solo hay un lote y, como mucho,
+ * api.importacion.maximo-errores errores, sin importar el tamaño del archivo.
+ *
+ * Si un lote falla en la base de datos (por ejemplo un email o documento repetido), se reintenta
+ * registro por registro para informar exactamente qué líneas fallaron y guardar las demás.
+ */
+@Component
+public class ImportadorEnLotes {
+
+    @Value("${api.importacion.tamanio-lote:500}")
+    private int tamanioLote;
+    @Value("${api.importacion.maximo-errores:1000}")
+    private int maximoErrores;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private Validator validator;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private EntityManager em;
+
+    /*
+     * - tipo     : record de entrada de cada registro.
+     * - aEntidad : convierte el record validado en la entidad a guardar.
+     * - guardar  : guarda un lote de entidades; se ejecuta dentro de la transacción del lote.
+     */
+    public <D, E> ResultadoImportacionDTO importar(InputStream cuerpo, FormatoImportacion formato, Class<D> tipo,
+                                                   Function<D, E> aEntidad, Consumer<List<E>> guardar) {
+        var reporte = new Reporte(maximoErrores);
+        var lote = new ArrayList<Fila<D>>(tamanioLote);
+        try (var lector = new BufferedReader(new InputStreamReader(cuerpo, StandardCharsets.UTF_8))) {
+            var registros = formato == FormatoImportacion.CSV ? new LectorCsv(lector) : new LectorNdjson(lector);
+            Registro registro;
+            while ((registro = registros.siguiente()) != null) {
+                reporte.procesados++;
+                if (registro.error() != null) {
+                    reporte.rechazar(registro.linea(), registro.error());
+                    continue;
+                }
+                try {
+                    var datos = objectMapper.treeToValue(registro.contenido(), tipo);
+                    validar(datos);
+                    /* Se convierte aquí para detectar errores de conversión (p. ej. especialidad inexistente) por línea */
+                    aEntidad.apply(datos);
+                    lote.add(new Fila<>(registro.linea(), datos));
+                } catch (JsonProcessingException e) {
+                    reporte.rechazar(registro.linea(), "Formato inválido: " + e.getOriginalMessage());
+                } catch (ValidacionException | IllegalArgumentException e) {
+                    reporte.rechazar(registro.linea(), e.getMessage());
+                }
+                if (lote.size() == tamanioLote) {
+                    guardarLote(lote, aEntidad, guardar, reporte);
+                    lote.clear();
+                }
+            }
+            if (!lote.isEmpty()) {
+                guardarLote(lote, aEntidad, guardar, reporte);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo leer el archivo de importación", e);
+        }
+        return reporte.resultado();
+    }
+
+    private <D> void validar(D datos) {
+        var violaciones = validator.validate(datos);
+        if (!violaciones.isEmpty()) {
+            throw new ValidacionException(violaciones.stream()
+                    .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+        }
+    }
+
+    private <D, E> void guardarLote(List<Fila<D>> lote, Function<D, E> aEntidad, Consumer<List<E>> guardar, Reporte reporte) {
+        try {
+            guardarEnTransaccion(lote.stream().map(f -> aEntidad.apply(f.datos())).toList(), guardar);
+            reporte.importados += lote.size();
+        } catch (DataAccessException | PersistenceException e) {
+            /* Entidades nuevas para cada reintento: las del lote fallido ya tienen un ID asignado */
+            for (var fila : lote) {
+                try {
+                    guardarEnTransaccion(List.of(aEntidad.apply(fila.datos())), guardar);
+                    reporte.importados++;
+                } catch (DataAccessException | PersistenceException ex) {
+                    reporte.rechazar(fila.linea(), describir(ex));
+                }
+            }
+        }
+    }
+
+    private <E> void guardarEnTransaccion(List<E> entidades, Consumer<List<E>> guardar) {
+        transactionTemplate.executeWithoutResult(estado -> {
+            guardar.accept(entidades);
+            em.flush();
+            em.clear();
+        });
+    }
+
+    /* Las violaciones de unique (email, documento) se informan con el nombre de la restricción */
+    private String describir(RuntimeException e) {
+        for (Throwable causa = e; causa != null; causa = causa.getCause()) {
+            if (causa instanceof ConstraintViolationException violacion) {
+                return "Registro duplicado o inconsistente (" + violacion.getConstraintName() + ")";
+            }
+        }
+        return NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+    }
+
+    private record Fila<D>(long linea, D datos) {}
+
+    /* Un registro leído del archivo: su contenido como JSON o el error que impidió leerlo */
+    private record Registro(long linea, JsonNode contenido, String error) {}
+
+    private interface LectorRegistros {
+        /* Retorna null al terminar el archivo */
+        Registro siguiente() throws IOException;
+    }
+
+    private class LectorNdjson implements LectorRegistros {
+        private final BufferedReader lector;
+        private long linea;
+
+        LectorNdjson(BufferedReader lector) {
+            this.lector = lector;
+        }
+
+        @Override
+        public Registro siguiente() throws IOException {
+            String texto;
+            while ((texto = lector.readLine()) != null) {
+                linea++;
+                if (texto.isBlank()) {
+                    continue;
+                }
+                try {
+                    return new Registro(linea, objectMapper.readTree(texto), null);
+                } catch (JsonProcessingException e) {
+                    return new Registro(linea, null, "JSON inválido: " + e.getOriginalMessage());
+                }
+            }
+            return null;
+        }
+    }
+
+    /*
+     * CSV con encabezado (RFC 4180 sin saltos de línea dentro de los campos).
+     * Las celdas vacías se omiten, igual que un campo ausente en el JSON.
+     */
+    private class LectorCsv implements LectorRegistros {
+        private final BufferedReader lector;
+        private List<String> encabezado;
+        private long linea;
+
+        LectorCsv(BufferedReader lector) {
+            this.lector = lector;
+        }
+
+        @Override
+        public Registro siguiente() throws IOException {
+            String texto;
+            while ((texto = lector.readLine()) != null) {
+                linea++;
+                if (texto.isBlank()) {
+                    continue;
+                }
+                var celdas = separar(texto);
+                if (encabezado == null) {
+                    encabezado = celdas.stream().map(String::trim).toList();
+                    continue;
+                }
+                if (celdas.size() != encabezado.size()) {
+                    return new Registro(linea, null, "Se esperaban " + encabezado.size() + " columnas y hay " + celdas.size());
+                }
+                var objeto = objectMapper.createObjectNode();
+                for (int i = 0; i < celdas.size(); i++) {
+                    if (!celdas.get(i).isEmpty()) {
+                        asignar(objeto, encabezado.get(i), celdas.get(i));
+                    }
+                }
+                return new Registro(linea, objeto, null);
+            }
+            return null;
+        }
+
+        /* "direccion.calle" -> {"direccion": {"calle": ...}} */
+        private void asignar(ObjectNode objeto, String campo, String valor) {
+            var partes = campo.split("\\.");
+            var actual = objeto;
+            for (int i = 0; i < partes.length - 1; i++) {
+                actual = actual.has(partes[i]) ? (ObjectNode) actual.get(partes[i]) : actual.putObject(partes[i]);
+            }
+            actual.put(partes[partes.length - 1], valor);
+        }
+
+        private List<String> separar(String texto) {
+            var celdas = new ArrayList<String>();
+            var celda = new StringBuilder();
+            var entreComillas = false;
+            for (int i = 0; i < texto.length(); i++) {
+                var c = texto.charAt(i);
+                if (entreComillas) {
+                    if (c == '"' && i + 1 < texto.length() && texto.charAt(i + 1) == '"') {
+                        celda.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        entreComillas = false;
+                    } else {
+                        celda.append(c);
+                    }
+                } else if (c == '"') {
+                    entreComillas = true;
+                } else if (c == ',') {
+                    celdas.add(celda.toString());
+                    celda.setLength(0);
+                } else {
+                    celda.append(c);
+                }
+            }
+            celdas.add(celda.toString());
+            return celdas;
+        }
+    }
+
+    private static class Reporte {
+        private final int maximoErrores;
+        private final List<ErrorImportacion> errores = new ArrayList<>();
+        private long procesados;
+        private long importados;
+        private long rechazados;
+
+        Reporte(int maximoErrores) {
+            this.maximoErrores = maximoErrores;
+        }
+
+        void rechazar(long linea, String error) {
+            rechazados++;
+            if (errores.size() < maximoErrores) {
+                errores.add(new ErrorImportacion(linea, error));
+            }
+        }
+
+        ResultadoImportacionDTO resultado() {
+            /* Los rechazos de un lote reintentado llegan después de los de lecturas posteriores */
+            errores.sort(Comparator.comparingLong(ErrorImportacion::linea));
+            return new ResultadoImportacionDTO(procesados, importados, rechazados, errores, rechazados > errores.size());
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.voll.api.domain.importacion;
+
+import java.util.List;
+
+/*
+ * Resultado de una importación: totales y los errores por línea.
+ * Solo se guardan los primeros errores (api.importacion.maximo-errores); "erroresTruncados"
+ * indica que hubo más, así la respuesta no crece con el tamaño del archivo.
+ */
+public record ResultadoImportacionDTO(
+        long procesados,
+        long importados,
+        long rechazados,
+        List<ErrorImportacion> errores,
+        boolean erroresTruncados
+) {
+
+    public record ErrorImportacion(long linea, String error) {}
+}
@@ -2,11 +2,14 @@ package com.voll.api.domain.medico;
 
 import com.voll.api.domain.direccion.Direccion;
 import com.voll.api.domain.medico.dto_medico.MedicoDTOModified;
+import com.voll.api.infra.cache.CacheEntidadesConfiguration;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 
 @Table(name = "medicos")//La tabla en la base de datos se llama "medicos"
@@ -16,9 +19,18 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor //Lombok crea un constructor con todos los argumentos y  atributos
 @NoArgsConstructor//Lombok crea un constructor vacío
 @EqualsAndHashCode(of = "id" )//Dos entidades son iguales si comparten un mismo id
+/*
+ * Caché de segundo nivel (ver CacheEntidadesConfiguration): findById y getReferenceById no van a MySQL
+ * si el médico está en caché. READ_WRITE actualiza la entrada al confirmar cada modificación
+ * hecha por Hibernate (actualizarMedico, eliminar); un UPDATE escrito a mano la dejaría desactualizada.
+ */
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheEntidadesConfiguration.REGION_MEDICOS)
 public class Medico {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "secuencia_medicos")
+    @TableGenerator(name = "secuencia_medicos", table = "secuencias", pkColumnName = "nombre",
+            valueColumnName = "siguiente_valor", pkColumnValue = "medicos", allocationSize = 50)
     private Long id;
     private Boolean activo;
     private String nombre;
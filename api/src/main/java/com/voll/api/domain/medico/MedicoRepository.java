@@ -1,107 +1,90 @@
 package com.voll.api.domain.medico;
 
 
-import org.springframework.data.domain.Page;
+import com.voll.api.domain.exportacion.ExportadorEnStreaming;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import com.voll.api.domain.medico.dto_medico.MedicoDTOList;
 
-import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 /*<Entidad que guardaremos, Tipo del ID*/
 public interface MedicoRepository extends JpaRepository<Medico, Long>  {
-    Page<Medico> findAllByActivoTrue(Pageable pageable);
-
     /*
-     * Esta anotación @Query define una consulta JPQL personalizada.
-     * Se utiliza cuando la lógica de selección no puede expresarse
-     * fácilmente con los métodos derivados de Spring Data JPA.
+     * Página de médicos activos sin COUNT: Slice pide un registro más para saber si hay página siguiente.
+     * El total, cuando se necesita, sale del ContadorActivos del servicio.
+     * Se proyecta directo al DTO del listado: solo se leen sus columnas y no se cargan entidades.
      */
     @Query("""
-    /*
-     * Seleccionamos la entidad Medico (m) desde la tabla correspondiente.
-     * JPQL trabaja con entidades y sus atributos, no con tablas SQL directamente.
-     */
-    SELECT m FROM Medico m 
-    WHERE
-        /*
-         * Filtramos solo médicos activos.
-         * Se asume que 'activo = 1' representa un médico habilitado.
-         */
-        m.activo = true
-        AND
-        /*
-         * Filtramos por la especialidad recibida como parámetro.
-         * ':especialidad' se enlaza con el argumento del método.
-         */
-        m.especialidad = :especialidad
-        AND
-        /*
-         * Excluimos médicos que ya tengan una consulta asignada
-         * en la fecha indicada.
-         */
-        m.id NOT IN (
-            /*
-             * Subconsulta que obtiene los IDs de los médicos
-             * que ya tienen una consulta en la fecha dada.
-             */
-            SELECT c.medico.id FROM Consulta c
-            WHERE
-                /*
-                 * Se comparan las fechas de la consulta con la fecha solicitada.
-                 * Si un médico aparece aquí, no estará disponible.
-                 */
-                c.fecha = :fecha
-        )
-    /*
-     * Ordenamos el resultado de forma aleatoria.
-     * IMPORTANTE: 'rand()' puede tener impacto en rendimiento
-     * si el volumen de datos es grande.
-     */
-    ORDER BY rand()
-    /*
-     * Limitamos el resultado a un solo médico.
-     * La idea es obtener un único médico disponible al azar.
-     */
-    LIMIT 1
+    SELECT new com.voll.api.domain.medico.dto_medico.MedicoDTOList(m.id, m.nombre, m.email, m.documento, m.especialidad)
+    FROM Medico m
+    WHERE m.activo = true
     """)
+    Slice<MedicoDTOList> buscarActivos(Pageable pageable);
+
+    long countByActivoTrue();
+
     /*
-     * Método del repositorio que devuelve un Medico.
-     *
-     * - especialidad: especialidad requerida para la consulta.
-     * - fecha: fecha futura en la que se necesita disponibilidad.
-     * - NULL : No encuentra resultado esperado
+     * Paginación por cursor (keyset): los médicos activos con ID mayor al cursor, ordenados por ID.
+     * Usa el índice de "activo" (que en InnoDB incluye el ID), así no se recorren ni se cuentan
+     * las páginas anteriores como ocurre con el OFFSET de Pageable.
      */
-    Medico elegirMedicoAleatorioDisponibleEnLaFecha(Especialidad especialidad, LocalDateTime fecha);
+    @Query("""
+    SELECT new com.voll.api.domain.medico.dto_medico.MedicoDTOList(m.id, m.nombre, m.email, m.documento, m.especialidad)
+    FROM Medico m
+    WHERE m.activo = true
+        AND m.id > :cursor
+    ORDER BY m.id
+    """)
+    List<MedicoDTOList> buscarActivosDespuesDe(Long cursor, Limit limit);
 
     /*
-     * Consulta JPQL cuyo objetivo es obtener únicamente
-     * el estado "activo" de un médico específico.
-     *
-     * IMPORTANTE:
-     * - No se devuelve la entidad Medico completa
-     * - Solo se retorna el valor del atributo m.activo
-     *
-     * Esto es una optimización intencional cuando
-     * solo se necesita un dato puntual y no todo el objeto.
+     * Todos los médicos activos en orden de ID, para la exportación (GET /medicos/export).
+     * Stream + fetch size: Hibernate recorre el resultado con un cursor de solo avance y el driver de MySQL
+     * lo recibe fila por fila (ver ExportadorEnStreaming.FETCH_EN_STREAMING); se proyecta al DTO para no cargar entidades.
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = ExportadorEnStreaming.FETCH_EN_STREAMING))
     @Query("""
+    SELECT new com.voll.api.domain.medico.dto_medico.MedicoDTOList(m.id, m.nombre, m.email, m.documento, m.especialidad)
+    FROM Medico m
+    WHERE m.activo = true
+    ORDER BY m.id
+    """)
+    Stream<MedicoDTOList> exportarActivos();
+
     /*
-     * Seleccionamos exclusivamente el campo 'activo'
-     * de la entidad Medico.
-     *
-     * En JPQL se pueden proyectar atributos específicos,
-     * no es obligatorio devolver la entidad completa.
+     * Retorna solo los IDs de los médicos activos de una especialidad.
+     * Es la lista de candidatos que usan las estrategias de asignación de médico,
+     * no necesita ordenar ni cargar las entidades completas.
      */
-    SELECT m.activo
+    @Query("""
+    SELECT m.id
     FROM Medico m
     WHERE
-        /*
-         * Filtramos por el identificador del médico.
-         * ':idMedico' se enlaza con el parámetro del método.
-         */
-        m.id = :idMedico
+        m.activo = true
+        AND
+        m.especialidad = :especialidad
     """)
+    List<Long> buscarIdsActivosPorEspecialidad(Especialidad especialidad);
 
-    boolean findActivoById(Long idMedico);
+    /*
+     * Estado "activo" de un médico específico.
+     *
+     * Se lee con findById para aprovechar la caché de segundo nivel: los mismos médicos
+     * se validan en cada reserva y, una vez en caché, no se vuelve a MySQL.
+     *
+     * - Optional vacío : No existe un médico con ese ID
+     * - Un 'activo' NULL se trata como inactivo, así no se confunde con un médico inexistente
+     */
+    default Optional<Boolean> findActivoById(Long idMedico) {
+        return findById(idMedico).map(medico -> Boolean.TRUE.equals(medico.getActivo()));
+    }
 }
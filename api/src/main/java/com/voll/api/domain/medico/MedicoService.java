@@ -1,20 +1,74 @@
 package com.voll.api.domain.medico;
 
+import com.voll.api.domain.AlConfirmarTransaccion;
+import com.voll.api.domain.ValidacionException;
+import com.voll.api.domain.consulta.ConsultaRepository;
+import com.voll.api.domain.consulta.agenda.HorarioAtencion;
+import com.voll.api.domain.consulta.agenda.IndiceAgenda;
+import com.voll.api.domain.exportacion.ExportadorEnStreaming;
+import com.voll.api.domain.exportacion.FormatoExportacion;
+import com.voll.api.domain.importacion.FormatoImportacion;
+import com.voll.api.domain.importacion.ImportadorEnLotes;
+import com.voll.api.domain.importacion.ResultadoImportacionDTO;
+import com.voll.api.domain.medico.dto_medico.DisponibilidadMedicoDTO;
 import com.voll.api.domain.medico.dto_medico.MedicoDTO;
 import com.voll.api.domain.medico.dto_medico.MedicoDTOList;
 import com.voll.api.domain.medico.dto_medico.MedicoDTOModified;
+import com.voll.api.domain.medico.asignacion.CandidatosPorEspecialidad;
 import org.springframework.beans.factory.annotation.Autowired;
+import com.voll.api.domain.ContadorActivos;
+import com.voll.api.domain.PaginaCursor;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.stereotype.Service;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.transaction.annotation.Transactional;
+import jakarta.persistence.EntityNotFoundException;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.function.Function;
 ;
 
 
 @Service
 public class MedicoService {
+
+    public static final int MAXIMO_DIAS_DISPONIBILIDAD = 90;
+
     @Autowired
     private MedicoRepository repository;
+    @Autowired
+    private CandidatosPorEspecialidad candidatos;
+    @Autowired
+    private ConsultaRepository consultaRepository;
+    @Autowired
+    private IndiceAgenda indiceAgenda;
+    @Autowired
+    private ImportadorEnLotes importador;
+    @Autowired
+    private ExportadorEnStreaming exportador;
+    @Value("${api.listados.total.vigencia-segundos:300}")
+    private long vigenciaTotal;
+
+    /* Total de registros activos para los listados paginados, sin COUNT por request */
+    private ContadorActivos activos;
+
+    @PostConstruct
+    void inicializar() {
+        activos = new ContadorActivos(repository::countByActivoTrue, Duration.ofSeconds(vigenciaTotal));
+    }
 
     //Los @Transactional solo van en la capa Service
 
@@ -27,13 +81,56 @@ public class MedicoService {
     //Guardar en la BD.
     //Retornamos La entidad JPA para luego tratarla en el Controller con ResponseEntity
     public Medico save(MedicoData json) {
-        return repository.save(new Medico(json));
+        var medico = repository.save(new Medico(json));
+        candidatos.invalidar(medico.getEspecialidad());
+        AlConfirmarTransaccion.ejecutar(() -> {
+            indiceAgenda.medicoActivado(medico.getId(), medico.getEspecialidad());
+            activos.sumar(1);
+        });
+        return medico;
+    }
+
+    //POST /import
+    //Importa médicos desde un cuerpo NDJSON o CSV, guardando en lotes con una transacción por lote
+    public ResultadoImportacionDTO importar(InputStream cuerpo, FormatoImportacion formato) {
+        return importador.importar(cuerpo, formato, MedicoData.class, Medico::new, lote -> {
+            repository.saveAll(lote);
+            lote.stream().map(Medico::getEspecialidad).distinct().forEach(candidatos::invalidar);
+            AlConfirmarTransaccion.ejecutar(() -> {
+                lote.forEach(medico -> indiceAgenda.medicoActivado(medico.getId(), medico.getEspecialidad()));
+                activos.sumar(lote.size());
+            });
+        });
+    }
+
+    //GET /export
+    //Escribe todos los médicos activos en la salida a medida que se leen de la base de datos
+    public void exportar(OutputStream salida, FormatoExportacion formato) {
+        exportador.exportar(salida, formato, repository::exportarActivos);
     }
 
     //GET
     //Devolver un página con 10 MédicoDTOList como máximo 200 OK con Body
+    @Transactional(readOnly = true)
     public Page<MedicoDTOList> listar(Pageable pageable) {
-        return repository.findAllByActivoTrue(pageable).map(MedicoDTOList::new);
+        var pagina = repository.buscarActivos(pageable);
+        return new PageImpl<>(pagina.getContent(), pageable, activos.total());
+    }
+
+    //GET sin total
+    //Igual que listar pero sin total de registros ni de páginas, solo indica si hay página siguiente
+    @Transactional(readOnly = true)
+    public Slice<MedicoDTOList> listarSinTotal(Pageable pageable) {
+        return repository.buscarActivos(pageable);
+    }
+
+    //GET con cursor
+    //Devuelve hasta "size" registros activos después del cursor y el cursor de la página siguiente
+    @Transactional(readOnly = true)
+    public PaginaCursor<MedicoDTOList> listarDespuesDe(String cursor, int size) {
+        var limite = PaginaCursor.validarTamanio(size);
+        var registros = repository.buscarActivosDespuesDe(PaginaCursor.decodificar(cursor), Limit.of(limite + 1));
+        return PaginaCursor.de(registros, limite, MedicoDTOList::id, Function.identity());
     }
 
     //PUT | PATCH
@@ -51,11 +148,70 @@ public class MedicoService {
     @Transactional
     public void eliminar(Long id) {
         Medico medico = repository.getReferenceById(id);
+        if (Boolean.TRUE.equals(medico.getActivo())) {
+            AlConfirmarTransaccion.ejecutar(() -> activos.restar(1));
+        }
         medico.eliminar();
+        candidatos.invalidar(medico.getEspecialidad());
+        AlConfirmarTransaccion.ejecutar(() -> indiceAgenda.medicoDesactivado(id));
+
+    }
 
+    //GET por ID
+    //Retorna el detalle del médico desde la caché de segundo nivel (o la base de datos), 404 (EntityNotFoundException) si no existe
+    @Transactional(readOnly = true)
+    public MedicoDTO buscar(Long id) {
+        return repository.findById(id)
+                .map(MedicoDTO::new)
+                .orElseThrow(() -> new EntityNotFoundException("No existe un médico con el id informado"));
     }
 
-    public Medico buscar(Long id) {
-        return repository.getReferenceById(id);
+    /*
+    * Horarios libres del médico entre "desde" y "hasta" (ambos incluidos).
+    *
+    * Se trae con una sola consulta por rango las fechas ocupadas del médico y se marcan
+    * en un mapa de bits por día (el mismo formato del IndiceAgenda). Luego se recorren
+    * los días y horas de atención de HorarioAtencion y se devuelven las horas cuyo bit
+    * está libre y que todavía se pueden reservar con la anticipación mínima.
+    */
+    @Transactional(readOnly = true)
+    public DisponibilidadMedicoDTO disponibilidad(Long id, LocalDate desde, LocalDate hasta) {
+        if (hasta.isBefore(desde)) {
+            throw new ValidacionException("La fecha 'hasta' no puede ser anterior a 'desde'");
+        }
+        if (ChronoUnit.DAYS.between(desde, hasta) >= MAXIMO_DIAS_DISPONIBILIDAD) {
+            throw new ValidacionException("El rango de disponibilidad no puede superar " + MAXIMO_DIAS_DISPONIBILIDAD + " días");
+        }
+
+        var activo = repository.findActivoById(id)
+                .orElseThrow(() -> new EntityNotFoundException("No existe un médico con el id informado"));
+        var dias = new ArrayList<DisponibilidadMedicoDTO.DiaDisponible>();
+        if (!activo) {
+            return new DisponibilidadMedicoDTO(id, desde, hasta, dias);
+        }
+
+        var ocupadas = new HashMap<LocalDate, Short>();
+        consultaRepository.buscarFechasOcupadasMedico(id, desde.atStartOfDay(), hasta.atTime(LocalTime.MAX))
+                .forEach(fecha -> ocupadas.merge(fecha.toLocalDate(), IndiceAgenda.bitDeHora(fecha.getHour()),
+                        (actual, nuevo) -> (short) (actual | nuevo)));
+
+        var primeraHoraReservable = LocalDateTime.now().plusMinutes(HorarioAtencion.MINUTOS_ANTICIPACION);
+        for (var dia = desde; !dia.isAfter(hasta); dia = dia.plusDays(1)) {
+            if (!HorarioAtencion.esDiaDeAtencion(dia.getDayOfWeek())) {
+                continue;
+            }
+            var horasOcupadas = ocupadas.getOrDefault(dia, (short) 0);
+            var horas = new ArrayList<LocalTime>();
+            for (int hora = HorarioAtencion.HORA_APERTURA; hora <= HorarioAtencion.ULTIMA_HORA; hora++) {
+                var horario = LocalTime.of(hora, 0);
+                if ((horasOcupadas & IndiceAgenda.bitDeHora(hora)) == 0 && !dia.atTime(horario).isBefore(primeraHoraReservable)) {
+                    horas.add(horario);
+                }
+            }
+            if (!horas.isEmpty()) {
+                dias.add(new DisponibilidadMedicoDTO.DiaDisponible(dia, horas));
+            }
+        }
+        return new DisponibilidadMedicoDTO(id, desde, hasta, dias);
     }
 }
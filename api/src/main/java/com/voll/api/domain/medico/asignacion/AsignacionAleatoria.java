@@ -0,0 +1,44 @@
+package com.voll.api.domain.medico.asignacion;
+
+import com.voll.api.domain.consulta.agenda.IndiceAgenda;
+import com.voll.api.domain.medico.Especialidad;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.function.LongPredicate;
+import java.util.concurrent.ThreadLocalRandom;
+
+/*
+ * Escoge un médico al azar entre los candidatos precalculados de la especialidad.
+ *
+ * En lugar de ordenar aleatoriamente a todos los médicos (ORDER BY rand()),
+ * se parte de una posición aleatoria de la lista y se recorre en forma circular
+ * hasta encontrar el primero que esté libre en el IndiceAgenda.
+ */
+@Component
+@ConditionalOnProperty(name = "api.consulta.asignacion-medico", havingValue = "aleatoria", matchIfMissing = true)
+public class AsignacionAleatoria implements MedicoAssignmentStrategy {
+
+    @Autowired
+    private CandidatosPorEspecialidad candidatos;
+    @Autowired
+    private IndiceAgenda indiceAgenda;
+
+    @Override
+    public Long elegir(Especialidad especialidad, LocalDateTime fecha, LongPredicate descartar) {
+        var ids = candidatos.de(especialidad);
+        if (ids.isEmpty()) {
+            return null;
+        }
+        var inicio = ThreadLocalRandom.current().nextInt(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            var id = ids.get((inicio + i) % ids.size());
+            if (!indiceAgenda.medicoOcupado(id, fecha) && !descartar.test(id)) {
+                return id;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,44 @@
+package com.voll.api.domain.medico.asignacion;
+
+import com.voll.api.domain.consulta.agenda.IndiceAgenda;
+import com.voll.api.domain.medico.Especialidad;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.function.LongPredicate;
+
+/*
+ * Escoge, entre los médicos libres en ese horario, al que tenga menos consultas en el día.
+ *
+ * La carga del día es la cantidad de bits encendidos en su agenda del IndiceAgenda,
+ * por lo que basta un recorrido lineal sobre los candidatos, sin ordenar.
+ */
+@Component
+@ConditionalOnProperty(name = "api.consulta.asignacion-medico", havingValue = "menos-cargada")
+public class AsignacionMenosCargada implements MedicoAssignmentStrategy {
+
+    @Autowired
+    private CandidatosPorEspecialidad candidatos;
+    @Autowired
+    private IndiceAgenda indiceAgenda;
+
+    @Override
+    public Long elegir(Especialidad especialidad, LocalDateTime fecha, LongPredicate descartar) {
+        var dia = fecha.toLocalDate();
+        Long elegido = null;
+        var menorCarga = Integer.MAX_VALUE;
+        for (var id : candidatos.de(especialidad)) {
+            if (indiceAgenda.medicoOcupado(id, fecha) || descartar.test(id)) {
+                continue;
+            }
+            var carga = Integer.bitCount(indiceAgenda.horasOcupadasMedico(id, dia) & 0xFFFF);
+            if (carga < menorCarga) {
+                menorCarga = carga;
+                elegido = id;
+            }
+        }
+        return elegido;
+    }
+}
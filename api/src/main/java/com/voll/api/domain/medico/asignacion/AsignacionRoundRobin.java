@@ -0,0 +1,47 @@
+package com.voll.api.domain.medico.asignacion;
+
+import com.voll.api.domain.consulta.agenda.IndiceAgenda;
+import com.voll.api.domain.medico.Especialidad;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.function.LongPredicate;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * Reparte las consultas entre los médicos de la especialidad por turnos.
+ *
+ * Cada especialidad tiene su propio cursor; cada asignación avanza el cursor
+ * y se salta a los médicos que ya están ocupados en ese horario.
+ */
+@Component
+@ConditionalOnProperty(name = "api.consulta.asignacion-medico", havingValue = "round-robin")
+public class AsignacionRoundRobin implements MedicoAssignmentStrategy {
+
+    @Autowired
+    private CandidatosPorEspecialidad candidatos;
+    @Autowired
+    private IndiceAgenda indiceAgenda;
+
+    private final ConcurrentHashMap<Especialidad, AtomicInteger> cursores = new ConcurrentHashMap<>();
+
+    @Override
+    public Long elegir(Especialidad especialidad, LocalDateTime fecha, LongPredicate descartar) {
+        var ids = candidatos.de(especialidad);
+        if (ids.isEmpty()) {
+            return null;
+        }
+        var cursor = cursores.computeIfAbsent(especialidad, e -> new AtomicInteger());
+        var inicio = Math.floorMod(cursor.getAndIncrement(), ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            var id = ids.get((inicio + i) % ids.size());
+            if (!indiceAgenda.medicoOcupado(id, fecha) && !descartar.test(id)) {
+                return id;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,38 @@
+package com.voll.api.domain.medico.asignacion;
+
+import com.voll.api.domain.AlConfirmarTransaccion;
+import com.voll.api.domain.medico.Especialidad;
+import com.voll.api.domain.medico.MedicoRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * Guarda en memoria, por especialidad, los IDs de los médicos activos.
+ *
+ * La lista se carga la primera vez que se necesita y se invalida
+ * cuando MedicoService registra o elimina un médico.
+ */
+@Component
+public class CandidatosPorEspecialidad {
+
+    @Autowired
+    private MedicoRepository repository;
+
+    private final ConcurrentHashMap<Especialidad, List<Long>> candidatos = new ConcurrentHashMap<>();
+
+    public List<Long> de(Especialidad especialidad) {
+        return candidatos.computeIfAbsent(especialidad,
+                e -> List.copyOf(repository.buscarIdsActivosPorEspecialidad(e)));
+    }
+
+    /*
+     * Si hay una transacción en curso, la lista se descarta recién después del commit;
+     * de lo contrario otra request podría recargarla antes de que el cambio sea visible.
+     */
+    public void invalidar(Especialidad especialidad) {
+        AlConfirmarTransaccion.ejecutar(() -> candidatos.remove(especialidad));
+    }
+}
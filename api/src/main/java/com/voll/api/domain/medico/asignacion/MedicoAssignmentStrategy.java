@@ -0,0 +1,28 @@
+package com.voll.api.domain.medico.asignacion;
+
+import com.voll.api.domain.medico.Especialidad;
+
+import java.time.LocalDateTime;
+import java.util.function.LongPredicate;
+
+/*
+ * Estrategia para escoger un médico cuando la reserva de una consulta no informa uno.
+ *
+ * La implementación activa se elige con la propiedad "api.consulta.asignacion-medico":
+ * - aleatoria (por defecto)
+ * - round-robin
+ * - menos-cargada
+ *
+ * Retorna el ID de un médico activo de la especialidad que esté libre en la fecha indicada,
+ * o null si ninguno está disponible.
+ *
+ * El predicado "descartar" permite excluir médicos que el IndiceAgenda todavía no conoce
+ * como ocupados, por ejemplo los ya asignados dentro de una misma reserva en lote.
+ */
+public interface MedicoAssignmentStrategy {
+    Long elegir(Especialidad especialidad, LocalDateTime fecha, LongPredicate descartar);
+
+    default Long elegir(Especialidad especialidad, LocalDateTime fecha) {
+        return elegir(especialidad, fecha, id -> false);
+    }
+}
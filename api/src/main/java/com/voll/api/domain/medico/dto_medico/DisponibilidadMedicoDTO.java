@@ -0,0 +1,19 @@
+package com.voll.api.domain.medico.dto_medico;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+/*
+ * Horarios libres de un médico entre dos fechas, agrupados por día.
+ * Solo se incluyen los días que tienen al menos un horario libre.
+ */
+public record DisponibilidadMedicoDTO(
+        Long idMedico,
+        LocalDate desde,
+        LocalDate hasta,
+        List<DiaDisponible> dias
+) {
+
+    public record DiaDisponible(LocalDate dia, List<LocalTime> horas) {}
+}
@@ -2,8 +2,11 @@ package com.voll.api.domain.paciente;
 
 import com.voll.api.domain.direccion.Direccion;
 import com.voll.api.domain.paciente.dto_paciente.PacienteDTOModified;
+import com.voll.api.infra.cache.CacheEntidadesConfiguration;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Table(name = "pacientes")
 @Entity(name = "Paciente")
@@ -12,9 +15,13 @@ import lombok.*;
 @NoArgsConstructor
 @AllArgsConstructor
 @EqualsAndHashCode(of = "id")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheEntidadesConfiguration.REGION_PACIENTES)
 public class Paciente {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "secuencia_pacientes")
+    @TableGenerator(name = "secuencia_pacientes", table = "secuencias", pkColumnName = "nombre",
+            valueColumnName = "siguiente_valor", pkColumnValue = "pacientes", allocationSize = 50)
     private Long id;
 
     private Boolean activo;
@@ -1,30 +1,68 @@
 package com.voll.api.domain.paciente;
 
+import com.voll.api.domain.exportacion.ExportadorEnStreaming;
+import jakarta.persistence.QueryHint;
 import jakarta.validation.constraints.NotNull;
-import org.springframework.data.domain.Page;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import com.voll.api.domain.paciente.dto_paciente.PacienteDTOList;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface PacienteRepositoy extends JpaRepository<Paciente, Long> {
-    Page<Paciente> findAllByActivoTrue(Pageable pageable);
+    /*
+     * Página de pacientes activos sin COUNT: Slice pide un registro más para saber si hay página siguiente.
+     * El total, cuando se necesita, sale del ContadorActivos del servicio.
+     * Se proyecta directo al DTO del listado: solo se leen sus columnas y no se cargan entidades.
+     */
+    @Query("""
+    SELECT new com.voll.api.domain.paciente.dto_paciente.PacienteDTOList(p.id, p.nombre, p.email, p.documento)
+    FROM Paciente p
+    WHERE p.activo = true
+    """)
+    Slice<PacienteDTOList> buscarActivos(Pageable pageable);
 
+    long countByActivoTrue();
+
+    /*
+     * Paginación por cursor (keyset): los pacientes activos con ID mayor al cursor, ordenados por ID.
+     * Usa el índice de "activo" (que en InnoDB incluye el ID), así no se recorren ni se cuentan
+     * las páginas anteriores como ocurre con el OFFSET de Pageable.
+     */
     @Query("""
+    SELECT new com.voll.api.domain.paciente.dto_paciente.PacienteDTOList(p.id, p.nombre, p.email, p.documento)
+    FROM Paciente p
+    WHERE p.activo = true
+        AND p.id > :cursor
+    ORDER BY p.id
+    """)
+    List<PacienteDTOList> buscarActivosDespuesDe(Long cursor, Limit limit);
+
     /*
-     * Seleccionamos exclusivamente el campo 'activo'
-     * de la entidad Paciente.
-     *
-     * En JPQL se pueden proyectar atributos específicos,
-     * no es obligatorio devolver la entidad completa.
+     * Todos los pacientes activos en orden de ID, para la exportación (GET /pacientes/export).
+     * Se lee fila por fila en streaming, igual que MedicoRepository.exportarActivos.
      */
-    SELECT p.activo
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = ExportadorEnStreaming.FETCH_EN_STREAMING))
+    @Query("""
+    SELECT new com.voll.api.domain.paciente.dto_paciente.PacienteDTOList(p.id, p.nombre, p.email, p.documento)
     FROM Paciente p
-    WHERE
-        /*
-         * Filtramos por el identificador del médico.
-         * ':idMedico' se enlaza con el parámetro del método.
-         */
-        p.id = :idPaciente
+    WHERE p.activo = true
+    ORDER BY p.id
     """)
-    boolean findActivoById(Long idPaciente);
+    Stream<PacienteDTOList> exportarActivos();
+
+    /*
+     * Estado "activo" del paciente leído con findById, que usa la caché de segundo nivel.
+     * Retorna un Optional vacío cuando no existe un paciente con ese ID.
+     */
+    default Optional<Boolean> findActivoById(Long idPaciente) {
+        return findById(idPaciente).map(paciente -> Boolean.TRUE.equals(paciente.getActivo()));
+    }
 }
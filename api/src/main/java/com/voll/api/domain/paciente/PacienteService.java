@@ -1,28 +1,96 @@
 package com.voll.api.domain.paciente;
 
+import com.voll.api.domain.exportacion.ExportadorEnStreaming;
+import com.voll.api.domain.exportacion.FormatoExportacion;
+import com.voll.api.domain.importacion.FormatoImportacion;
+import com.voll.api.domain.importacion.ImportadorEnLotes;
+import com.voll.api.domain.importacion.ResultadoImportacionDTO;
 import com.voll.api.domain.paciente.dto_paciente.PacienteDTO;
 import com.voll.api.domain.paciente.dto_paciente.PacienteDTOList;
 import com.voll.api.domain.paciente.dto_paciente.PacienteDTOModified;
-import jakarta.transaction.Transactional;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
+import com.voll.api.domain.AlConfirmarTransaccion;
+import com.voll.api.domain.ContadorActivos;
+import com.voll.api.domain.PaginaCursor;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.function.Function;
+
 
 @Service
 public class PacienteService {
 
     @Autowired
     private PacienteRepositoy repository;
+    @Autowired
+    private ImportadorEnLotes importador;
+    @Autowired
+    private ExportadorEnStreaming exportador;
+    @Value("${api.listados.total.vigencia-segundos:300}")
+    private long vigenciaTotal;
+
+    /* Total de registros activos para los listados paginados, sin COUNT por request */
+    private ContadorActivos activos;
 
+    @PostConstruct
+    void inicializar() {
+        activos = new ContadorActivos(repository::countByActivoTrue, Duration.ofSeconds(vigenciaTotal));
+    }
+
+    @Transactional(readOnly = true)
     public Page<PacienteDTOList> listar(Pageable pageable) {
-        return repository.findAllByActivoTrue(pageable).map(PacienteDTOList::new);
+        var pagina = repository.buscarActivos(pageable);
+        return new PageImpl<>(pagina.getContent(), pageable, activos.total());
+    }
+
+    //GET sin total
+    //Igual que listar pero sin total de registros ni de páginas, solo indica si hay página siguiente
+    @Transactional(readOnly = true)
+    public Slice<PacienteDTOList> listarSinTotal(Pageable pageable) {
+        return repository.buscarActivos(pageable);
+    }
+
+    //GET con cursor
+    //Devuelve hasta "size" registros activos después del cursor y el cursor de la página siguiente
+    @Transactional(readOnly = true)
+    public PaginaCursor<PacienteDTOList> listarDespuesDe(String cursor, int size) {
+        var limite = PaginaCursor.validarTamanio(size);
+        var registros = repository.buscarActivosDespuesDe(PaginaCursor.decodificar(cursor), Limit.of(limite + 1));
+        return PaginaCursor.de(registros, limite, PacienteDTOList::id, Function.identity());
     }
 
     @Transactional
     public Paciente registrar(PacienteData json) {
-        return repository.save(new Paciente(json));
+        var paciente = repository.save(new Paciente(json));
+        AlConfirmarTransaccion.ejecutar(() -> activos.sumar(1));
+        return paciente;
+    }
+
+    //POST /import
+    //Importa pacientes desde un cuerpo NDJSON o CSV, guardando en lotes con una transacción por lote
+    public ResultadoImportacionDTO importar(InputStream cuerpo, FormatoImportacion formato) {
+        return importador.importar(cuerpo, formato, PacienteData.class, Paciente::new, lote -> {
+            repository.saveAll(lote);
+            AlConfirmarTransaccion.ejecutar(() -> activos.sumar(lote.size()));
+        });
+    }
+
+    //GET /export
+    //Escribe todos los pacientes activos en la salida a medida que se leen de la base de datos
+    public void exportar(OutputStream salida, FormatoExportacion formato) {
+        exportador.exportar(salida, formato, repository::exportarActivos);
     }
 
     @Transactional
@@ -37,11 +105,18 @@ public class PacienteService {
     @Transactional
     public void eliminar(Long id) {
         Paciente paciente = repository.getReferenceById(id);
+        if (Boolean.TRUE.equals(paciente.getActivo())) {
+            AlConfirmarTransaccion.ejecutar(() -> activos.restar(1));
+        }
         paciente.eliminar();
     }
 
-    public Paciente buscar(Long id){
-        return repository.getReferenceById(id);
-
+    //GET por ID
+    //Retorna el detalle del paciente desde la caché de segundo nivel (o la base de datos), 404 (EntityNotFoundException) si no existe
+    @Transactional(readOnly = true)
+    public PacienteDTO buscar(Long id) {
+        return repository.findById(id)
+                .map(PacienteDTO::new)
+                .orElseThrow(() -> new EntityNotFoundException("No existe un paciente con el id informado"));
     }
 }
@@ -1,6 +1,7 @@
 package com.voll.api.domain.usuario;
 
 import com.voll.api.domain.usuario.dto_usuario.UsuarioDTO;
+import com.voll.api.infra.security.CambiosUsuario;
 import jakarta.persistence.*;
 import lombok.*;
 import org.springframework.security.core.GrantedAuthority;
@@ -16,6 +17,7 @@ import java.util.List;
 @AllArgsConstructor //Lombok crea un constructor con todos los argumentos y  atributos
 @NoArgsConstructor//Lombok crea un constructor vacío
 @EqualsAndHashCode(of = "id" )//Dos entidades son iguales si comparten un mismo id
+@EntityListeners(CambiosUsuario.class)//Los cambios invalidan la caché de usuarios de SecurityFilter
 
 /*
 * La interaz UserDetails Provides core user information.
@@ -24,7 +26,9 @@ import java.util.List;
 * */
 public class Usuario implements UserDetails {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "secuencia_usuarios")
+    @TableGenerator(name = "secuencia_usuarios", table = "secuencias", pkColumnName = "nombre",
+            valueColumnName = "siguiente_valor", pkColumnValue = "usuarios", allocationSize = 50)
     private Long id;
     private String login;
     private String password;
@@ -37,6 +41,11 @@ public class Usuario implements UserDetails {
 
     }
 
+    /* Nueva contraseña ya cifrada (rehash de UsuarioService.updatePassword) */
+    public void actualizarPassword(String password) {
+        this.password = password;
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return List.of(new SimpleGrantedAuthority("ROLE_USER"));
@@ -2,7 +2,10 @@ package com.voll.api.domain.usuario;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.transaction.annotation.Transactional;
 
 public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
+    /* Solo lectura: con la réplica habilitada, la búsqueda del usuario de cada request no va a la primaria */
+    @Transactional(readOnly = true)
     UserDetails findByLogin(String login);
 }
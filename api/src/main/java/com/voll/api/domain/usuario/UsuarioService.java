@@ -2,12 +2,14 @@ package com.voll.api.domain.usuario;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
-public class UsuarioService implements UserDetailsService {
+public class UsuarioService implements UserDetailsService, UserDetailsPasswordService {
 
     @Autowired
     private UsuarioRepository repository;
@@ -23,4 +25,17 @@ public class UsuarioService implements UserDetailsService {
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         return repository.findByLogin(username);
     }
+
+    /*
+     * Spring Security (DaoAuthenticationProvider) llama a este método después de un inicio de sesión
+     * correcto cuando el PasswordEncoder indica que el hash guardado no tiene el costo configurado
+     * (ver ContraseniasBCrypt). Guarda la contraseña recién cifrada y retorna el usuario actualizado.
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        var usuario = (Usuario) repository.findByLogin(user.getUsername());
+        usuario.actualizarPassword(newPassword);
+        return usuario;
+    }
 }
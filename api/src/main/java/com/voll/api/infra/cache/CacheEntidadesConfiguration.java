@@ -0,0 +1,62 @@
+package com.voll.api.infra.cache;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Caché de segundo nivel de Hibernate para Medico y Paciente, en memoria con Caffeine (JCache).
+ *
+ * Las regiones se crean aquí con el tamaño máximo y el tiempo de vida de
+ * api.cache.entidades.*, y el CacheManager se le pasa a Hibernate ya armado.
+ * Cada nodo tiene su propia caché: un cambio hecho por otro nodo se ve aquí
+ * recién cuando vence la entrada (ttl-segundos).
+ *
+ * Métricas: hibernate.second.level.cache.requests (tags region y result=hit|miss),
+ * hibernate.second.level.cache.puts, entre otras; las registra Spring Boot al estar
+ * hibernate-micrometer en el classpath y hibernate.generate_statistics activo.
+ */
+@Configuration
+public class CacheEntidadesConfiguration {
+
+    public static final String REGION_MEDICOS = "medicos";
+    public static final String REGION_PACIENTES = "pacientes";
+
+    @Value("${api.cache.entidades.tamanio-maximo:2000}")
+    private long tamanioMaximo;
+    @Value("${api.cache.entidades.ttl-segundos:600}")
+    private long ttlSegundos;
+
+    @Bean(destroyMethod = "close")
+    public CacheManager cacheManagerEntidades() {
+        var proveedor = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        var cacheManager = proveedor.getCacheManager(proveedor.getDefaultURI(), getClass().getClassLoader());
+        for (var region : new String[]{REGION_MEDICOS, REGION_PACIENTES}) {
+            if (cacheManager.getCache(region) == null) {
+                cacheManager.createCache(region, configuracionRegion());
+            }
+        }
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer usarCacheManagerEntidades(CacheManager cacheManagerEntidades) {
+        return propiedades -> propiedades.put(ConfigSettings.CACHE_MANAGER, cacheManagerEntidades);
+    }
+
+    private CaffeineConfiguration<Object, Object> configuracionRegion() {
+        var configuracion = new CaffeineConfiguration<>();
+        configuracion.setMaximumSize(OptionalLong.of(tamanioMaximo));
+        configuracion.setExpireAfterWrite(OptionalLong.of(TimeUnit.SECONDS.toNanos(ttlSegundos)));
+        return configuracion;
+    }
+}
@@ -0,0 +1,52 @@
+package com.voll.api.infra.datasource;
+
+/*
+ * Estado del enrutamiento de la request en curso (un ThreadLocal por hilo).
+ *
+ * - fijadaAPrimaria: el cliente escribió hace poco y sus lecturas tienen que ir a la primaria
+ *   para ver sus propios cambios (la réplica puede ir atrasada).
+ * - escribio      : la request ya abrió una transacción de escritura; desde ahí sus lecturas
+ *   también van a la primaria y al terminar se fija el cliente.
+ *
+ * Fuera de una request (tareas programadas, exportaciones asíncronas) no hay estado
+ * y solo cuenta si la transacción es de solo lectura.
+ */
+public final class ContextoEnrutamiento {
+
+    private static final ThreadLocal<Estado> ESTADO = new ThreadLocal<>();
+
+    private ContextoEnrutamiento() {
+    }
+
+    public static void iniciar(boolean fijadaAPrimaria) {
+        var estado = new Estado();
+        estado.fijadaAPrimaria = fijadaAPrimaria;
+        ESTADO.set(estado);
+    }
+
+    public static void limpiar() {
+        ESTADO.remove();
+    }
+
+    public static boolean usarPrimaria() {
+        var estado = ESTADO.get();
+        return estado != null && (estado.fijadaAPrimaria || estado.escribio);
+    }
+
+    public static void registrarEscritura() {
+        var estado = ESTADO.get();
+        if (estado != null) {
+            estado.escribio = true;
+        }
+    }
+
+    public static boolean escribio() {
+        var estado = ESTADO.get();
+        return estado != null && estado.escribio;
+    }
+
+    private static class Estado {
+        private boolean fijadaAPrimaria;
+        private boolean escribio;
+    }
+}
@@ -0,0 +1,32 @@
+package com.voll.api.infra.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/*
+ * Envía las transacciones de solo lectura (@Transactional(readOnly = true)) a la réplica
+ * y todo lo demás a la primaria.
+ *
+ * La decisión se toma al pedir la conexión física, por eso tiene que ir envuelto en un
+ * LazyConnectionDataSourceProxy: el gestor de transacciones pide la conexión antes de marcar
+ * la transacción como de solo lectura, y el proxy la retrasa hasta la primera sentencia.
+ */
+public class DataSourceEnrutado extends AbstractRoutingDataSource {
+
+    public enum Destino {
+        PRIMARIA,
+        REPLICA
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return Destino.PRIMARIA;
+        }
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            ContextoEnrutamiento.registrarEscritura();
+            return Destino.PRIMARIA;
+        }
+        return ContextoEnrutamiento.usarPrimaria() ? Destino.PRIMARIA : Destino.REPLICA;
+    }
+}
@@ -0,0 +1,77 @@
+package com.voll.api.infra.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/*
+ * Con api.datasource.replica.habilitada=true reemplaza el DataSource de spring.datasource por:
+ *
+ * - primaria : el pool de spring.datasource (también lo usa Flyway para las migraciones).
+ * - replica  : un segundo pool configurado en api.datasource.replica.* (jdbc-url, username,
+ *              password, maximum-pool-size... con los nombres de Hikari).
+ * - dataSource (@Primary): DataSourceEnrutado sobre ambos, detrás de un LazyConnectionDataSourceProxy.
+ *   Es el que usan JPA y los repositorios.
+ *
+ * Sin la propiedad no se crea nada y Spring Boot configura el DataSource único de siempre.
+ */
+@Configuration
+@ConditionalOnProperty(name = "api.datasource.replica.habilitada", havingValue = "true")
+public class DataSourceReplicaConfiguration {
+
+    @Bean
+    @FlywayDataSource
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSourcePrimaria(DataSourceProperties propiedades) {
+        return propiedades.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @ConfigurationProperties("api.datasource.replica")
+    public HikariDataSource dataSourceReplica() {
+        return DataSourceBuilder.create().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("dataSourcePrimaria") DataSource primaria,
+                                 @Qualifier("dataSourceReplica") DataSource replica) {
+        return enrutar(primaria, replica);
+    }
+
+    /*
+     * Por defecto Hibernate retiene la conexión física hasta cerrar el EntityManager, que con
+     * open-in-view dura toda la request: la primera transacción decidiría el destino de las demás.
+     * Liberándola al terminar cada transacción, cada una se enruta por separado.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer liberarConexionAlTerminarTransaccion() {
+        return propiedades -> propiedades.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+
+    /* Arma el DataSource enrutado; público para poder probarlo con dos bases embebidas */
+    public static DataSource enrutar(DataSource primaria, DataSource replica) {
+        var enrutado = new DataSourceEnrutado();
+        enrutado.setTargetDataSources(Map.of(
+                DataSourceEnrutado.Destino.PRIMARIA, primaria,
+                DataSourceEnrutado.Destino.REPLICA, replica));
+        enrutado.setDefaultTargetDataSource(primaria);
+        enrutado.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(enrutado);
+    }
+}
@@ -0,0 +1,69 @@
+package com.voll.api.infra.datasource;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * Lee-tus-escrituras con réplica: cuando una request de un cliente abre una transacción
+ * de escritura, las lecturas de ese cliente van a la primaria durante
+ * api.datasource.replica.fijar-primaria-segundos (0 lo desactiva).
+ *
+ * El cliente es el usuario autenticado o, sin autenticación, la IP de la request.
+ * Se registra después de los filtros de Spring Security para conocer el usuario.
+ */
+@Component
+@ConditionalOnProperty(name = "api.datasource.replica.habilitada", havingValue = "true")
+public class FijacionPrimariaFilter extends OncePerRequestFilter {
+
+    @Value("${api.datasource.replica.fijar-primaria-segundos:5}")
+    private long segundosFijada;
+
+    /* Cliente -> instante (System.nanoTime) hasta el que sus lecturas van a la primaria */
+    private final ConcurrentHashMap<String, Long> fijadosHasta = new ConcurrentHashMap<>();
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        var cliente = cliente(request);
+        ContextoEnrutamiento.iniciar(estaFijado(cliente));
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (ContextoEnrutamiento.escribio() && segundosFijada > 0) {
+                fijadosHasta.put(cliente, System.nanoTime() + segundosFijada * 1_000_000_000L);
+            }
+            ContextoEnrutamiento.limpiar();
+        }
+    }
+
+    boolean estaFijado(String cliente) {
+        var hasta = fijadosHasta.get(cliente);
+        return hasta != null && hasta - System.nanoTime() > 0;
+    }
+
+    /* Descarta los clientes cuya fijación ya venció para que el mapa no crezca sin límite */
+    @Scheduled(fixedDelay = 60_000)
+    public void purgarVencidos() {
+        var ahora = System.nanoTime();
+        fijadosHasta.values().removeIf(hasta -> hasta - ahora <= 0);
+    }
+
+    private String cliente(HttpServletRequest request) {
+        var autenticacion = SecurityContextHolder.getContext().getAuthentication();
+        if (autenticacion != null && autenticacion.isAuthenticated() && !(autenticacion instanceof AnonymousAuthenticationToken)) {
+            return "usuario:" + autenticacion.getName();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+}
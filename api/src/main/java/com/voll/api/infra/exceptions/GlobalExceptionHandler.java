@@ -2,7 +2,9 @@ package com.voll.api.infra.exceptions;
 
 
 import com.voll.api.domain.ValidacionException;
+import com.voll.api.infra.security.LoginSaturadoException;
 import jakarta.persistence.EntityNotFoundException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
@@ -89,6 +91,14 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Acceso denegado");
     }
 
+    // La cola de /login está llena: 503 con Retry-After, sin verificar la contraseña
+    @ExceptionHandler(LoginSaturadoException.class)
+    public ResponseEntity gestionarLoginSaturado(LoginSaturadoException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getReintentarEnSegundos()))
+                .body(ex.getMessage());
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity gestionarError500(Exception ex) {
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error: " +ex.getLocalizedMessage());
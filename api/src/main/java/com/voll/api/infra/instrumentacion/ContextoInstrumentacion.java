@@ -0,0 +1,70 @@
+package com.voll.api.infra.instrumentacion;
+
+/*
+ * Datos del hilo actual que usan las métricas de conexiones y transacciones:
+ *
+ * - endpoint  : método del controller que atiende la request ("ConsultaController.reservar"),
+ *               "filtros" antes de llegar al controller (p. ej. SecurityFilter) y "ninguno"
+ *               fuera de una request (tareas programadas). Las exportaciones, que se escriben en
+ *               otro hilo, continúan el endpoint y la ruta de su request (InstrumentacionConfiguration).
+ * - ruta      : método HTTP y path de la request, para el log de transacciones lentas.
+ * - sentencias: sentencias JDBC ejecutadas por el hilo; cada transacción guarda el valor
+ *               al empezar y al terminar calcula cuántas ejecutó.
+ */
+public final class ContextoInstrumentacion {
+
+    public static final String SIN_ENDPOINT = "ninguno";
+    public static final String FILTROS = "filtros";
+
+    private static final ThreadLocal<ContextoInstrumentacion> ACTUAL = ThreadLocal.withInitial(ContextoInstrumentacion::new);
+
+    private String endpoint = SIN_ENDPOINT;
+    private String ruta;
+    private long sentencias;
+
+    private ContextoInstrumentacion() {
+    }
+
+    public static ContextoInstrumentacion actual() {
+        return ACTUAL.get();
+    }
+
+    static void iniciarRequest(String ruta) {
+        var contexto = actual();
+        contexto.endpoint = FILTROS;
+        contexto.ruta = ruta;
+    }
+
+    /* En el hilo que continúa una request asíncrona; se termina igual, con terminarRequest */
+    static void continuarRequest(String endpoint, String ruta) {
+        var contexto = actual();
+        contexto.endpoint = endpoint;
+        contexto.ruta = ruta;
+    }
+
+    static void terminarRequest() {
+        var contexto = actual();
+        contexto.endpoint = SIN_ENDPOINT;
+        contexto.ruta = null;
+    }
+
+    void setEndpoint(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    void contarSentencia() {
+        sentencias++;
+    }
+
+    public String endpoint() {
+        return endpoint;
+    }
+
+    public String ruta() {
+        return ruta;
+    }
+
+    public long sentencias() {
+        return sentencias;
+    }
+}
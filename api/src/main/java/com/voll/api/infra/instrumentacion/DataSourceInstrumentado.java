@@ -0,0 +1,137 @@
+package com.voll.api.infra.instrumentacion;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Envuelve un pool de conexiones (HikariDataSource) y mide, por endpoint:
+ *
+ * - db.conexion.espera (Timer)  : cuánto tarda el pool en entregar una conexión. Con el pool
+ *                                 agotado este tiempo crece, y el tag "endpoint" dice quién espera.
+ * - db.conexion.uso    (Timer)  : cuánto tiempo se retiene la conexión hasta devolverla al pool.
+ *                                 Identifica qué endpoints acaparan conexiones.
+ * - db.sentencias      (Counter): sentencias JDBC ejecutadas.
+ *
+ * Todas llevan los tags "pool" (nombre del bean) y "endpoint" (ver ContextoInstrumentacion).
+ * El endpoint se toma al pedir la conexión, así el tiempo de uso se atribuye a quien la pidió.
+ */
+public class DataSourceInstrumentado extends DelegatingDataSource implements AutoCloseable {
+
+    private final String pool;
+    private final ObjectProvider<MeterRegistry> registry;
+
+    public DataSourceInstrumentado(DataSource pool, String nombre, ObjectProvider<MeterRegistry> registry) {
+        super(pool);
+        this.pool = nombre;
+        this.registry = registry;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        var inicio = System.nanoTime();
+        return instrumentar(super.getConnection(), inicio);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        var inicio = System.nanoTime();
+        return instrumentar(super.getConnection(username, password), inicio);
+    }
+
+    /* Cierra el pool al apagar la aplicación, como lo haría el HikariDataSource sin envolver */
+    @Override
+    public void close() throws Exception {
+        if (getTargetDataSource() instanceof AutoCloseable cerrable) {
+            cerrable.close();
+        }
+    }
+
+    private Connection instrumentar(Connection conexion, long inicio) {
+        var entregada = System.nanoTime();
+        var endpoint = ContextoInstrumentacion.actual().endpoint();
+        temporizador("db.conexion.espera", endpoint).record(entregada - inicio, TimeUnit.NANOSECONDS);
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                new ConexionMedida(conexion, endpoint, entregada));
+    }
+
+    private Timer temporizador(String nombre, String endpoint) {
+        return Timer.builder(nombre).tag("pool", pool).tag("endpoint", endpoint).register(registry.getObject());
+    }
+
+    private Counter sentencias(String endpoint) {
+        return Counter.builder("db.sentencias").tag("pool", pool).tag("endpoint", endpoint).register(registry.getObject());
+    }
+
+    private static Object invocar(Object destino, Method metodo, Object[] args) throws Throwable {
+        try {
+            return metodo.invoke(destino, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private class ConexionMedida implements InvocationHandler {
+        private final Connection conexion;
+        private final String endpoint;
+        private final long entregada;
+        private boolean cerrada;
+
+        ConexionMedida(Connection conexion, String endpoint, long entregada) {
+            this.conexion = conexion;
+            this.endpoint = endpoint;
+            this.entregada = entregada;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method metodo, Object[] args) throws Throwable {
+            switch (metodo.getName()) {
+                case "close" -> {
+                    if (!cerrada) {
+                        cerrada = true;
+                        temporizador("db.conexion.uso", endpoint).record(System.nanoTime() - entregada, TimeUnit.NANOSECONDS);
+                    }
+                    return invocar(conexion, metodo, args);
+                }
+                case "createStatement" -> {
+                    return sentencia(Statement.class, invocar(conexion, metodo, args));
+                }
+                case "prepareStatement" -> {
+                    return sentencia(PreparedStatement.class, invocar(conexion, metodo, args));
+                }
+                case "prepareCall" -> {
+                    return sentencia(CallableStatement.class, invocar(conexion, metodo, args));
+                }
+                default -> {
+                    return invocar(conexion, metodo, args);
+                }
+            }
+        }
+
+        private Object sentencia(Class<?> tipo, Object sentencia) {
+            return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{tipo}, (proxy, metodo, args) -> {
+                if (metodo.getName().startsWith("execute")) {
+                    /* Se cuenta en el hilo que ejecuta, que puede no ser el que pidió la conexión */
+                    var contexto = ContextoInstrumentacion.actual();
+                    contexto.contarSentencia();
+                    sentencias(contexto.endpoint()).increment();
+                }
+                return invocar(sentencia, metodo, args);
+            });
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.voll.api.infra.instrumentacion;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.io.IOException;
+import java.util.concurrent.Callable;
+
+/*
+ * Conecta las métricas de conexiones y transacciones con la request que las origina:
+ *
+ * - Cada HikariDataSource (el único de spring.datasource, o la primaria y la réplica)
+ *   se envuelve en un DataSourceInstrumentado.
+ * - Un filtro, antes que Spring Security, guarda la ruta de la request en el ContextoInstrumentacion.
+ * - Un interceptor, cuando ya se conoce el controller, guarda su nombre como endpoint.
+ * - Las respuestas asíncronas (el StreamingResponseBody de las exportaciones) se escriben en otro hilo:
+ *   el endpoint y la ruta pasan a ese hilo por atributos de la request.
+ */
+@Configuration
+public class InstrumentacionConfiguration implements WebMvcConfigurer {
+
+    private static final String ATRIBUTO_ENDPOINT = ContextoInstrumentacion.class.getName() + ".endpoint";
+    private static final String ATRIBUTO_RUTA = ContextoInstrumentacion.class.getName() + ".ruta";
+
+    /* static: los BeanPostProcessor se crean antes que el resto de los beans de la configuración */
+    @Bean
+    public static BeanPostProcessor instrumentarPoolsDeConexiones(ObjectProvider<MeterRegistry> registry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String nombre) {
+                return bean instanceof HikariDataSource pool ? new DataSourceInstrumentado(pool, nombre, registry) : bean;
+            }
+        };
+    }
+
+    @Bean
+    public FilterRegistrationBean<OncePerRequestFilter> contextoInstrumentacionFilter() {
+        var registro = new FilterRegistrationBean<OncePerRequestFilter>(new OncePerRequestFilter() {
+            @Override
+            protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+                ContextoInstrumentacion.iniciarRequest(request.getMethod() + " " + request.getRequestURI());
+                try {
+                    filterChain.doFilter(request, response);
+                } finally {
+                    ContextoInstrumentacion.terminarRequest();
+                }
+            }
+        });
+        registro.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registro;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new HandlerInterceptor() {
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                if (handler instanceof HandlerMethod metodo) {
+                    ContextoInstrumentacion.actual().setEndpoint(metodo.getBeanType().getSimpleName() + "." + metodo.getMethod().getName());
+                }
+                return true;
+            }
+        });
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.registerCallableInterceptors(propagarContexto());
+    }
+
+    /* beforeConcurrentHandling corre en el hilo de la request; preProcess y postProcess, en el que escribe la respuesta */
+    static CallableProcessingInterceptor propagarContexto() {
+        return new CallableProcessingInterceptor() {
+            @Override
+            public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> tarea) {
+                var contexto = ContextoInstrumentacion.actual();
+                request.setAttribute(ATRIBUTO_ENDPOINT, contexto.endpoint(), RequestAttributes.SCOPE_REQUEST);
+                request.setAttribute(ATRIBUTO_RUTA, contexto.ruta(), RequestAttributes.SCOPE_REQUEST);
+            }
+
+            @Override
+            public <T> void preProcess(NativeWebRequest request, Callable<T> tarea) {
+                ContextoInstrumentacion.continuarRequest(
+                        (String) request.getAttribute(ATRIBUTO_ENDPOINT, RequestAttributes.SCOPE_REQUEST),
+                        (String) request.getAttribute(ATRIBUTO_RUTA, RequestAttributes.SCOPE_REQUEST));
+            }
+
+            @Override
+            public <T> void postProcess(NativeWebRequest request, Callable<T> tarea, Object resultado) {
+                ContextoInstrumentacion.terminarRequest();
+            }
+        };
+    }
+}
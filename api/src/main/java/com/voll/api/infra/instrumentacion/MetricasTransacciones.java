@@ -0,0 +1,89 @@
+package com.voll.api.infra.instrumentacion;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Mide cada transacción nueva (las que participan de otra no cuentan), tanto las de
+ * @Transactional como las de TransactionTemplate. Spring Boot registra este listener
+ * en el gestor de transacciones automáticamente.
+ *
+ * - db.transaccion            (Timer)              : duración, con tags endpoint, resultado (commit/rollback) y solo_lectura.
+ * - db.transaccion.sentencias (DistributionSummary): sentencias JDBC ejecutadas dentro de la transacción.
+ *
+ * Las transacciones que superan api.instrumentacion.transaccion-lenta-ms se registran en el log
+ * con el endpoint y la ruta de la request.
+ */
+@Component
+public class MetricasTransacciones implements TransactionExecutionListener {
+
+    private static final Logger log = LoggerFactory.getLogger(MetricasTransacciones.class);
+
+    /* Una pila por hilo: una transacción REQUIRES_NEW empieza y termina dentro de otra */
+    private static final ThreadLocal<ArrayDeque<EnCurso>> EN_CURSO = ThreadLocal.withInitial(ArrayDeque::new);
+
+    @Value("${api.instrumentacion.transaccion-lenta-ms:500}")
+    private long umbralLentaMs;
+    @Autowired
+    private MeterRegistry registry;
+
+    @Override
+    public void afterBegin(TransactionExecution transaccion, Throwable error) {
+        if (error == null && transaccion.isNewTransaction()) {
+            EN_CURSO.get().push(new EnCurso(transaccion, System.nanoTime(), ContextoInstrumentacion.actual().sentencias()));
+        }
+    }
+
+    @Override
+    public void afterCommit(TransactionExecution transaccion, Throwable error) {
+        terminar(transaccion, error == null ? "commit" : "error");
+    }
+
+    @Override
+    public void afterRollback(TransactionExecution transaccion, Throwable error) {
+        terminar(transaccion, "rollback");
+    }
+
+    private void terminar(TransactionExecution transaccion, String resultado) {
+        var pila = EN_CURSO.get();
+        /* Un commit fallido puede avisar también el rollback: solo se mide la primera vez */
+        if (pila.isEmpty() || pila.peek().transaccion() != transaccion) {
+            return;
+        }
+        var enCurso = pila.pop();
+        var contexto = ContextoInstrumentacion.actual();
+        var duracion = System.nanoTime() - enCurso.inicio();
+        var sentencias = contexto.sentencias() - enCurso.sentenciasAlEmpezar();
+
+        Timer.builder("db.transaccion")
+                .tag("endpoint", contexto.endpoint())
+                .tag("resultado", resultado)
+                .tag("solo_lectura", String.valueOf(transaccion.isReadOnly()))
+                .register(registry)
+                .record(duracion, TimeUnit.NANOSECONDS);
+        DistributionSummary.builder("db.transaccion.sentencias")
+                .tag("endpoint", contexto.endpoint())
+                .register(registry)
+                .record(sentencias);
+
+        var milisegundos = TimeUnit.NANOSECONDS.toMillis(duracion);
+        if (milisegundos >= umbralLentaMs) {
+            log.warn("Transacción lenta: {} ms, {} sentencias, {} ({}), endpoint {}, resultado {}",
+                    milisegundos, sentencias, transaccion.getTransactionName(),
+                    contexto.ruta() != null ? contexto.ruta() : "sin request", contexto.endpoint(), resultado);
+        }
+    }
+
+    private record EnCurso(TransactionExecution transaccion, long inicio, long sentenciasAlEmpezar) {}
+}
@@ -0,0 +1,76 @@
+package com.voll.api.infra.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.voll.api.domain.AlConfirmarTransaccion;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.function.Function;
+
+/*
+ * Caché en memoria del usuario (UserDetails) de cada subject de JWT, para que SecurityFilter
+ * no consulte la tabla "usuarios" en cada request.
+ *
+ * Cada entrada vence cuando vence el token con el que se cargó, y como máximo después de
+ * api.security.cache-usuarios.vigencia-maxima-segundos. La caché tiene a lo sumo
+ * api.security.cache-usuarios.tamanio-maximo usuarios.
+ *
+ * Cualquier cambio en un Usuario (ver CambiosUsuario) vacía la caché después del commit.
+ * Los cambios son raros y así un cambio de login tampoco deja entradas con el login anterior.
+ * Cada nodo tiene su propia caché: un cambio hecho en otro nodo se ve aquí al vencer la entrada.
+ *
+ * Métricas: cache.gets (tags cache=usuarios y result=hit|miss), cache.size y cache.evictions.
+ */
+@Component
+public class CacheUsuarios {
+
+    @Value("${api.security.cache-usuarios.tamanio-maximo:10000}")
+    private long tamanioMaximo;
+    @Value("${api.security.cache-usuarios.vigencia-maxima-segundos:300}")
+    private long vigenciaMaximaSegundos;
+    @Autowired
+    private MeterRegistry registry;
+
+    private Cache<String, Entrada> usuarios;
+
+    @PostConstruct
+    void inicializar() {
+        usuarios = Caffeine.newBuilder()
+                .maximumSize(tamanioMaximo)
+                .expireAfter(new VenceEn<String, Entrada>(Entrada::vence))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, usuarios, "usuarios");
+    }
+
+    /*
+     * Retorna el usuario del login desde la caché o, si no está, lo carga con "cargar".
+     * "expiracion" es la fecha de expiración del token; null si no tiene.
+     * Un usuario inexistente (cargar retorna null) no se guarda.
+     */
+    public UserDetails buscar(String login, Instant expiracion, Function<String, UserDetails> cargar) {
+        var entrada = usuarios.get(login, l -> {
+            var usuario = cargar.apply(l);
+            return usuario == null ? null : new Entrada(usuario, vence(expiracion));
+        });
+        return entrada == null ? null : entrada.usuario();
+    }
+
+    public void invalidarTodos() {
+        AlConfirmarTransaccion.ejecutar(usuarios::invalidateAll);
+    }
+
+    private Instant vence(Instant expiracion) {
+        var maximo = Instant.now().plusSeconds(vigenciaMaximaSegundos);
+        return expiracion == null || expiracion.isAfter(maximo) ? maximo : expiracion;
+    }
+
+    private record Entrada(UserDetails usuario, Instant vence) {}
+}
@@ -0,0 +1,21 @@
+package com.voll.api.infra.security;
+
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/*
+ * Entity listener de Usuario: cualquier cambio o baja invalida la CacheUsuarios.
+ * Hibernate lo crea a través de Spring (SpringBeanContainer), por eso admite @Autowired.
+ */
+public class CambiosUsuario {
+
+    @Autowired
+    private CacheUsuarios cache;
+
+    @PostUpdate
+    @PostRemove
+    void usuarioModificado(Object usuario) {
+        cache.invalidarTodos();
+    }
+}
@@ -0,0 +1,37 @@
+package com.voll.api.infra.security;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.regex.Pattern;
+
+/*
+ * BCryptPasswordEncoder con un costo objetivo (api.security.password.costo-bcrypt).
+ *
+ * Con api.security.password.rehash=true, un hash guardado con otro costo (mayor o menor) se vuelve
+ * a cifrar con el costo objetivo en el siguiente inicio de sesión correcto: DaoAuthenticationProvider
+ * consulta upgradeEncoding y guarda el nuevo hash con UsuarioService.updatePassword.
+ * BCryptPasswordEncoder por sí solo solo sube el costo, nunca lo baja.
+ */
+class ContraseniasBCrypt extends BCryptPasswordEncoder {
+
+    /* $2a$10$... : versión y costo del hash */
+    private static final Pattern COSTO = Pattern.compile("\\A\\$2[aby]?\\$(\\d\\d)\\$");
+
+    private final int costo;
+    private final boolean rehash;
+
+    ContraseniasBCrypt(int costo, boolean rehash) {
+        super(costo);
+        this.costo = costo;
+        this.rehash = rehash;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (!rehash || encodedPassword == null) {
+            return false;
+        }
+        var costoGuardado = COSTO.matcher(encodedPassword);
+        return costoGuardado.find() && Integer.parseInt(costoGuardado.group(1)) != costo;
+    }
+}
@@ -0,0 +1,19 @@
+package com.voll.api.infra.security;
+
+/*
+ * La cola de verificación de contraseñas de /login está llena (ver VerificadorContrasenias).
+ * GlobalExceptionHandler la responde con 503 y el header Retry-After.
+ */
+public class LoginSaturadoException extends RuntimeException {
+
+    private final long reintentarEnSegundos;
+
+    public LoginSaturadoException(long reintentarEnSegundos) {
+        super("Demasiados inicios de sesión en curso, intente nuevamente en unos segundos");
+        this.reintentarEnSegundos = reintentarEnSegundos;
+    }
+
+    public long getReintentarEnSegundos() {
+        return reintentarEnSegundos;
+    }
+}
@@ -1,17 +1,19 @@
 package com.voll.api.infra.security;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
 @Configuration // Indica que esta clase contiene configuraciones de Spring
@@ -59,6 +61,9 @@ public class SecurityConfigurations {
                  */
 
                 .addFilterBefore(securityFilter, UsernamePasswordAuthenticationFilter.class)
+
+                // Sin token o con un token inválido/expirado se responde 401 (por defecto Spring Security responde 403)
+                .exceptionHandling(eh -> eh.authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED)))
                 .build();
     }
 
@@ -72,11 +77,13 @@ public class SecurityConfigurations {
     }
 
     /*
-    * Disponibilizamos un método que permite usar BCRYPT como un password encoder
+    * Disponibilizamos un método que permite usar BCRYPT como un password encoder,
+    * con el costo de api.security.password.costo-bcrypt
     */
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${api.security.password.costo-bcrypt:10}") int costo,
+                                           @Value("${api.security.password.rehash:true}") boolean rehash) {
+        return new ContraseniasBCrypt(costo, rehash);
     }
 }
@@ -7,12 +7,17 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.OrRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.List;
 
 /*
  * Nuestro filtro de seguridad NO ES:
@@ -39,6 +44,30 @@ public class SecurityFilter extends OncePerRequestFilter {
     @Autowired
     private UsuarioRepository repository;
 
+    //Usuarios ya cargados por subject, para no consultar la base de datos en cada request
+    @Autowired
+    private CacheUsuarios cacheUsuarios;
+
+    /*
+     * Rutas sensibles: siempre buscan el usuario en la base de datos, sin la CacheUsuarios
+     * ni los claims autocontenidos del token. Cada elemento es un patrón de ruta,
+     * opcionalmente precedido por el método HTTP ("DELETE /**", "/medicos/import").
+     */
+    private RequestMatcher rutasSensibles;
+
+    @Value("${api.security.token.rutas-sensibles:}")
+    void setRutasSensibles(List<String> rutas) {
+        var matchers = rutas.stream()
+                .map(String::trim)
+                .filter(ruta -> !ruta.isEmpty())
+                .<RequestMatcher>map(ruta -> {
+                    var partes = ruta.split("\\s+", 2);
+                    return partes.length == 2 ? new AntPathRequestMatcher(partes[1], partes[0]) : new AntPathRequestMatcher(ruta);
+                })
+                .toList();
+        rutasSensibles = matchers.isEmpty() ? request -> false : new OrRequestMatcher(matchers);
+    }
+
     /*
      * doFilterInternal es el método encargado de aplicar la lógica
      * del filtro para cada request HTTP.
@@ -54,30 +83,42 @@ public class SecurityFilter extends OncePerRequestFilter {
      * 1. FILTRO:
      * Dependiedo si el JWT Token existe o no.
      * Se extraera el subject decodificando el token,
-     * se buscara si ese subject está en la base de datos
+     * se buscara si ese subject está en la base de datos (o en la CacheUsuarios)
      * y se llamara a la clase "UsernamePasswordAuthenticationToken"
      * para crear una autenticación, que setteará la autenticación del usuario y la hará valida.
      *
+     * Con claims autocontenidos (api.security.token.claims-autocontenidos=true) la autenticación
+     * se arma solo con el id y los roles del token verificado, sin base de datos ni caché,
+     * salvo en las rutas sensibles, que siempre consultan la base de datos.
+     *
      * De lo contrario se pasará al siguiente filtro y Spring Security lo  manejará.
      */
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
         var tokenJWT = retrieveToken(request);
-        if (tokenJWT != null) {
-            var subject = service.getSubject(tokenJWT);
-            var user = repository.findByLogin(subject);
-
-            /*
-             * Se construye un objeto Authentication utilizando la información del usuario.
-             *
-             * - No se incluye la contraseña porque el proceso de autenticación
-             *   ya fue realizado previamente mediante el JWT.
-             * - Se asignan las authorities (roles/permisos) asociadas al usuario,
-             *   necesarias para la autorización en capas posteriores.
-             */
-
-            var authentication = new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
+        /* Un token inválido o expirado (null) deja la request sin autenticación y Spring Security responde 401 */
+        var token = tokenJWT == null ? null : service.verificar(tokenJWT);
+        if (token != null) {
+            var sensible = rutasSensibles.matches(request);
+            var authentication = sensible ? null : service.autenticacionDesdeClaims(token);
+
+            if (authentication == null) {
+                var user = sensible
+                        ? repository.findByLogin(token.getSubject())
+                        : cacheUsuarios.buscar(token.getSubject(), token.getExpiresAtAsInstant(), repository::findByLogin);
+
+                /*
+                 * Se construye un objeto Authentication utilizando la información del usuario.
+                 *
+                 * - No se incluye la contraseña porque el proceso de autenticación
+                 *   ya fue realizado previamente mediante el JWT.
+                 * - Se asignan las authorities (roles/permisos) asociadas al usuario,
+                 *   necesarias para la autorización en capas posteriores.
+                 */
+
+                authentication = new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
+            }
 
             /*
              * Se establece el Authentication en el SecurityContext.
@@ -1,15 +1,33 @@
 package com.voll.api.infra.security;
 
 import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
 import com.auth0.jwt.algorithms.Algorithm;
 import com.auth0.jwt.exceptions.JWTCreationException;
 import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.voll.api.domain.usuario.Usuario;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.List;
 
 
 @Service
@@ -22,6 +40,67 @@ public class TokenService {
     @Value("${api.security.token.secret}")
     private String secret;
 
+    /*
+     * Con claims autocontenidos el token también lleva el id del usuario ("id") y sus authorities ("roles"),
+     * y SecurityFilter arma la autenticación solo con el token, sin consultar la base de datos.
+     */
+    @Value("${api.security.token.claims-autocontenidos:false}")
+    private boolean claimsAutocontenidos;
+
+    /*
+     * Tokens verificados recientemente (api.security.token.cache-verificados): la clave es el SHA-256
+     * del token, así la caché no guarda credenciales, y cada entrada vence junto con su token.
+     */
+    @Value("${api.security.token.cache-verificados.tamanio-maximo:10000}")
+    private long tamanioCacheVerificados;
+
+    /*
+     * Tokens rechazados recientemente (api.security.token.cache-rechazados), también por SHA-256:
+     * un token con la forma de un JWT pero con la firma falsa o ya vencido no vuelve a calcular
+     * el HMAC ni a lanzar JWTVerificationException en cada request mientras dure la entrada.
+     */
+    @Value("${api.security.token.cache-rechazados.tamanio-maximo:10000}")
+    private long tamanioCacheRechazados;
+    @Value("${api.security.token.cache-rechazados.vigencia-segundos:60}")
+    private long vigenciaCacheRechazados;
+    @Autowired
+    private MeterRegistry registry;
+
+    private static final String ISSUER = "API Voll.med";
+    private static final String CLAIM_ID = "id";
+    private static final String CLAIM_ROLES = "roles";
+
+    /* Un JWT firmado con HMAC256 por esta API no se acerca a este tamaño */
+    private static final int LARGO_MAXIMO_TOKEN = 4096;
+
+    /* Algorithm y JWTVerifier son inmutables y thread-safe: se crean una sola vez */
+    private Algorithm algorithm;
+    private JWTVerifier verifier;
+    private Cache<String, DecodedJWT> verificados;
+    private Cache<String, Boolean> rechazados;
+
+    @PostConstruct
+    void inicializar() {
+        algorithm = Algorithm.HMAC256(secret);
+        verifier = JWT.require(algorithm)
+                // specify any specific claim validations
+                .withIssuer(ISSUER)
+                // reusable verifier instance
+                .build();
+        verificados = Caffeine.newBuilder()
+                .maximumSize(tamanioCacheVerificados)
+                .expireAfter(new VenceEn<String, DecodedJWT>(DecodedJWT::getExpiresAtAsInstant))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, verificados, "tokens");
+        rechazados = Caffeine.newBuilder()
+                .maximumSize(tamanioCacheRechazados)
+                .expireAfterWrite(Duration.ofSeconds(vigenciaCacheRechazados))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, rechazados, "tokens-rechazados");
+    }
+
     /*
     * Este método crea y retorna un token firmado por API Voll.med
     * con vigencia de 2 horas a partir de su creación, para el usuario registrado.
@@ -32,16 +111,19 @@ public class TokenService {
 
         try {
             /*Contraseña especifica y secreta que sirve para Firmar el Token
-            * Usando HMAC256 como algoritmo de encriptación*/
-            Algorithm algorithm = Algorithm.HMAC256(secret);
-            return JWT.create()
+            * Usando HMAC256 como algoritmo de encriptación (algorithm se crea una vez en inicializar)*/
+            var token = JWT.create()
                     /*Empresa, Entidad, Compañia que realiza la firma*/
-                    .withIssuer("API Voll.med")
+                    .withIssuer(ISSUER)
                     /*Indica el usuario el cual ha sido registrado*/
                     .withSubject(usuario.getLogin())
                     /*Fecha de expiración*/
-                    .withExpiresAt(expireDate())
-                    .sign(algorithm);
+                    .withExpiresAt(expireDate());
+            if (claimsAutocontenidos) {
+                token.withClaim(CLAIM_ID, usuario.getId())
+                        .withClaim(CLAIM_ROLES, usuario.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList());
+            }
+            return token.sign(algorithm);
 
         } catch (JWTCreationException exception){
             throw new RuntimeException("Error al generar el Token JWT",exception);
@@ -58,32 +140,88 @@ public class TokenService {
     }
 
     /*
-     * Este método retorna el Subject decodificado del JWT.
+     * Este método retorna el Subject decodificado del JWT, o null si el token no es válido.
+     */
+
+    public String getSubject(String tokenJWT) {
+        var token = verificar(tokenJWT);
+        return token == null ? null : token.getSubject();
+    }
+
+    /*
+     * Este método retorna el JWT decodificado (subject, expiración...).
      *
      * Para ello:
      * - Verifica que el token haya sido firmado con el secret correcto
      * - Valida que el issuer coincida con el configurado en la API
      * - Comprueba la validez del token (firma, expiración, integridad)
      *
-     * En caso de que alguna de estas validaciones falle,
-     * se lanza una excepción en tiempo de ejecución.
+     * En caso de que alguna de estas validaciones falle retorna null, sin lanzar excepciones:
+     * SecurityFilter no autentica la request y Spring Security responde 401.
+     *
+     * Un token ya verificado se toma de la caché (sin volver a calcular la firma ni leer el JSON)
+     * mientras no haya expirado. Uno ya rechazado se descarta desde la otra caché, sin repetir
+     * la verificación. Los textos que ni siquiera tienen la forma de un JWT
+     * (tres partes separadas por puntos) se descartan sin llamar a java-jwt.
      */
 
-    public String getSubject(String tokenJWT) {
+    public DecodedJWT verificar(String tokenJWT) {
+        if (!tieneFormaDeJwt(tokenJWT)) {
+            return null;
+        }
+        var clave = sha256(tokenJWT);
+        var token = verificados.getIfPresent(clave);
+        if (token != null && token.getExpiresAtAsInstant().isAfter(Instant.now())) {
+            return token;
+        }
+        if (rechazados.getIfPresent(clave) != null) {
+            return null;
+        }
         try {
-             /* Usando HMAC256 como algoritmo de encriptación*/
-            Algorithm algorithm = Algorithm.HMAC256(secret);
-            return JWT.require(algorithm)
-                    // specify any specific claim validations
-                    .withIssuer("API Voll.med")
-                    // reusable verifier instance
-                    .build()
-                    // Decode the JWT Token
-                    .verify(tokenJWT)
-                    // Get the subjet of the Token PayLoad
-                    .getSubject();
+            token = verifier.verify(tokenJWT);
         } catch (JWTVerificationException exception){
-            throw new RuntimeException("Error al verificar el Token JWT, Token invalido o expirado");
+            rechazados.put(clave, Boolean.TRUE);
+            return null;
+        }
+        if (token.getExpiresAtAsInstant() != null) {
+            verificados.put(clave, token);
+        }
+        return token;
+    }
+
+    private boolean tieneFormaDeJwt(String tokenJWT) {
+        if (tokenJWT == null || tokenJWT.isEmpty() || tokenJWT.length() > LARGO_MAXIMO_TOKEN) {
+            return false;
+        }
+        var primerPunto = tokenJWT.indexOf('.');
+        var segundoPunto = tokenJWT.indexOf('.', primerPunto + 1);
+        return primerPunto > 0 && segundoPunto > primerPunto + 1
+                && segundoPunto < tokenJWT.length() - 1 && tokenJWT.indexOf('.', segundoPunto + 1) < 0;
+    }
+
+    private static String sha256(String tokenJWT) {
+        try {
+            var hash = MessageDigest.getInstance("SHA-256").digest(tokenJWT.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /*
+     * Retorna el usuario y sus authorities leídos de los claims de un token ya verificado,
+     * o null si los claims autocontenidos están desactivados o el token no los trae
+     * (tokens emitidos antes de activarlos).
+     */
+    public UsernamePasswordAuthenticationToken autenticacionDesdeClaims(DecodedJWT token) {
+        var id = token.getClaim(CLAIM_ID);
+        var roles = token.getClaim(CLAIM_ROLES);
+        if (!claimsAutocontenidos || id.isMissing() || roles.isMissing()) {
+            return null;
         }
+        List<GrantedAuthority> authorities = roles.asList(String.class).stream()
+                .<GrantedAuthority>map(SimpleGrantedAuthority::new)
+                .toList();
+        return new UsernamePasswordAuthenticationToken(new UsuarioToken(id.asLong(), token.getSubject()), null, authorities);
     }
 }
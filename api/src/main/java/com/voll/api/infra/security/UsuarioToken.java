@@ -0,0 +1,15 @@
+package com.voll.api.infra.security;
+
+import java.security.Principal;
+
+/*
+ * Usuario autenticado armado solo con los claims del JWT (id y subject), sin consultar la base de datos.
+ * Es el principal de la autenticación cuando api.security.token.claims-autocontenidos=true.
+ */
+public record UsuarioToken(Long id, String login) implements Principal {
+
+    @Override
+    public String getName() {
+        return login;
+    }
+}
@@ -0,0 +1,35 @@
+package com.voll.api.infra.security;
+
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.function.Function;
+
+/*
+ * Expiración por entrada de Caffeine: cada valor vence en el instante que indica "vence"
+ * (la expiración del token con el que se cargó). Leer la entrada no extiende su vigencia.
+ */
+class VenceEn<K, V> implements Expiry<K, V> {
+
+    private final Function<V, Instant> vence;
+
+    VenceEn(Function<V, Instant> vence) {
+        this.vence = vence;
+    }
+
+    @Override
+    public long expireAfterCreate(K clave, V valor, long ahora) {
+        return Math.max(0, Duration.between(Instant.now(), vence.apply(valor)).toNanos());
+    }
+
+    @Override
+    public long expireAfterUpdate(K clave, V valor, long ahora, long restante) {
+        return expireAfterCreate(clave, valor, ahora);
+    }
+
+    @Override
+    public long expireAfterRead(K clave, V valor, long ahora, long restante) {
+        return restante;
+    }
+}
@@ -0,0 +1,81 @@
+package com.voll.api.infra.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Ejecuta la autenticación de /login (búsqueda del usuario y BCrypt) en un pool propio,
+ * fuera de los hilos de Tomcat: una ola de inicios de sesión ocupa como máximo
+ * api.security.login.hilos hilos y las reservas siguen teniendo hilos para atenderse.
+ *
+ * Las verificaciones que no tienen hilo libre esperan en una cola de api.security.login.cola
+ * lugares. Con la cola llena se lanza LoginSaturadoException (503 con Retry-After) sin
+ * calcular ningún hash.
+ *
+ * Métricas en Micrometer:
+ * - executor.* (tag name=login) : hilos activos, tareas en cola, tiempo de ejecución...
+ * - login.rechazados (Counter)  : inicios de sesión rechazados por cola llena.
+ */
+@Component
+public class VerificadorContrasenias {
+
+    @Value("${api.security.login.hilos:4}")
+    private int hilos;
+    @Value("${api.security.login.cola:100}")
+    private int cola;
+    @Value("${api.security.login.reintentar-en-segundos:2}")
+    private long reintentarEnSegundos;
+    @Autowired
+    private AuthenticationManager manager;
+    @Autowired
+    private MeterRegistry registry;
+
+    private ThreadPoolExecutor executor;
+    private Counter rechazados;
+
+    @PostConstruct
+    void inicializar() {
+        BlockingQueue<Runnable> pendientes = cola > 0 ? new ArrayBlockingQueue<>(cola) : new SynchronousQueue<>();
+        executor = new ThreadPoolExecutor(hilos, hilos, 0, TimeUnit.MILLISECONDS, pendientes,
+                new CustomizableThreadFactory("login-"), new ThreadPoolExecutor.AbortPolicy());
+        new ExecutorServiceMetrics(executor, "login", List.of()).bindTo(registry);
+        rechazados = Counter.builder("login.rechazados").register(registry);
+    }
+
+    @PreDestroy
+    void detener() {
+        executor.shutdown();
+    }
+
+    /*
+     * Autentica las credenciales en el pool de login. El resultado falla con las mismas excepciones
+     * de AuthenticationManager.authenticate (BadCredentialsException...).
+     */
+    public CompletableFuture<Authentication> autenticar(UsernamePasswordAuthenticationToken credenciales) {
+        try {
+            return CompletableFuture.supplyAsync(() -> manager.authenticate(credenciales), executor);
+        } catch (RejectedExecutionException e) {
+            rechazados.increment();
+            throw new LoginSaturadoException(reintentarEnSegundos);
+        }
+    }
+}
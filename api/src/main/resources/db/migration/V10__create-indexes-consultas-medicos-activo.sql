@@ -0,0 +1,11 @@
+-- Índices compuestos que empiezan por el médico o el paciente y filtran por activo:
+-- las consultas canceladas (activo = 0) quedan en otra rama del índice y no se recorren.
+create index idx_consultas_medico_activo_fecha on consultas (medico_id, activo, fecha);
+create index idx_consultas_paciente_activo_fecha on consultas (paciente_id, activo, fecha);
+
+-- Agenda activa desde una fecha (reconstrucción del IndiceAgenda al iniciar).
+create index idx_consultas_activo_fecha on consultas (activo, fecha);
+
+-- Listado de médicos activos y candidatos por especialidad.
+create index idx_medicos_activo on medicos (activo);
+create index idx_medicos_especialidad_activo on medicos (especialidad, activo);
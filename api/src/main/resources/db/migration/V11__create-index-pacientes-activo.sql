@@ -0,0 +1,2 @@
+-- Listado de pacientes activos (paginado por OFFSET o por cursor sobre el ID).
+create index idx_pacientes_activo on pacientes (activo);
@@ -0,0 +1,15 @@
+-- Bloques de IDs para el @TableGenerator de Hibernate (allocationSize = 50).
+-- siguiente_valor es el tope del próximo bloque: se parte de max(id) + 100 para que
+-- el primer bloque (tope - 49 .. tope) quede por encima de los IDs ya existentes.
+create table secuencias(
+
+                           nombre varchar(50) not null,
+                           siguiente_valor bigint not null,
+
+                           primary key(nombre)
+);
+
+insert into secuencias (nombre, siguiente_valor) select 'medicos', coalesce(max(id), 0) + 100 from medicos;
+insert into secuencias (nombre, siguiente_valor) select 'pacientes', coalesce(max(id), 0) + 100 from pacientes;
+insert into secuencias (nombre, siguiente_valor) select 'consultas', coalesce(max(id), 0) + 100 from consultas;
+insert into secuencias (nombre, siguiente_valor) select 'usuarios', coalesce(max(id), 0) + 100 from usuarios;
@@ -0,0 +1,22 @@
+-- Consultas ya pasadas o canceladas que el job de archivo (ArchivoConsultas) saca de "consultas".
+-- Mismas columnas que "consultas" sin fecha_activa ni la restricción única: aquí ninguna consulta ocupa horario.
+create table consultas_historico(
+
+                                    id bigint not null,
+                                    medico_id bigint not null,
+                                    paciente_id bigint not null,
+                                    fecha datetime not null,
+                                    activo tinyint,
+
+                                    primary key(id),
+
+                                    constraint fk_consultas_historico_medico_id
+                                        foreign key (medico_id) references medicos(id),
+
+                                    constraint fk_consultas_historico_paciente_id
+                                        foreign key (paciente_id) references pacientes(id)
+);
+
+-- Historial de un médico o de un paciente ordenado por fecha.
+create index idx_consultas_historico_medico_fecha on consultas_historico (medico_id, fecha);
+create index idx_consultas_historico_paciente_fecha on consultas_historico (paciente_id, fecha);
@@ -0,0 +1,43 @@
+-- Partición por mes de "consultas" según fecha: las consultas filtradas por rango de fechas
+-- (agenda, disponibilidad, reservas en lote) solo leen las particiones de esos meses.
+--
+-- MySQL exige que la columna de partición esté en todas las claves únicas y no admite
+-- claves foráneas en tablas particionadas:
+-- - La clave primaria pasa a (id, fecha); el ID sigue saliendo de la tabla "secuencias".
+-- - La restricción única del horario del médico agrega fecha. fecha_activa es igual a fecha
+--   cuando la consulta está activa, así que sigue impidiendo dos consultas activas del mismo
+--   médico en la misma fecha, y conserva su nombre (ReservaConsultaService lo reconoce).
+-- - Se eliminan las claves foráneas a medicos y pacientes: la reserva valida que ambos existan,
+--   y médicos y pacientes nunca se borran (solo se desactivan).
+alter table consultas drop foreign key fk_consultas_medico_id;
+alter table consultas drop foreign key fk_consultas_paciente_id;
+
+alter table consultas
+    drop primary key,
+    add primary key (id, fecha);
+
+alter table consultas
+    drop index uk_consultas_medico_fecha_activa,
+    add constraint uk_consultas_medico_fecha_activa unique (medico_id, fecha_activa, fecha);
+
+-- p_anteriores: todo lo anterior al mes actual (ParticionesConsultas la elimina cuando ArchivoConsultas la vacía).
+-- Un mes por partición, el actual y los tres siguientes (pAAAAMM).
+-- p_futuras: reservas más allá de los meses creados; ParticionesConsultas la divide en meses a medida que avanza el tiempo.
+set @mes_actual = date_format(curdate(), '%Y-%m-01');
+
+set @particiones = concat(
+        'alter table consultas partition by range columns(fecha) (',
+        'partition p_anteriores values less than (''', @mes_actual, '''), ',
+        'partition p', date_format(@mes_actual, '%Y%m'),
+        ' values less than (''', date_add(@mes_actual, interval 1 month), '''), ',
+        'partition p', date_format(date_add(@mes_actual, interval 1 month), '%Y%m'),
+        ' values less than (''', date_add(@mes_actual, interval 2 month), '''), ',
+        'partition p', date_format(date_add(@mes_actual, interval 2 month), '%Y%m'),
+        ' values less than (''', date_add(@mes_actual, interval 3 month), '''), ',
+        'partition p', date_format(date_add(@mes_actual, interval 3 month), '%Y%m'),
+        ' values less than (''', date_add(@mes_actual, interval 4 month), '''), ',
+        'partition p_futuras values less than (maxvalue))');
+
+prepare particionar from @particiones;
+execute particionar;
+deallocate prepare particionar;
@@ -0,0 +1,25 @@
+-- Se quita la partición por mes de V14. MySQL la permitía solo sin claves foráneas y con fecha en la
+-- clave primaria y en la restricción única, así que la base dejó de garantizar que médico y paciente
+-- existan (importaciones, reservas en lote, SQL manual) y que el ID de una consulta sea único.
+--
+-- "consultas" se mantiene pequeña con el archivo (ArchivoConsultas mueve las canceladas y las pasadas
+-- a consultas_historico) y las búsquedas por fecha usan los índices (activo, fecha) y
+-- (medico_id / paciente_id, activo, fecha), sin necesidad de particiones.
+--
+-- Las restricciones se recrean tal como estaban antes de V14: si algún dato las incumple,
+-- la migración falla y hay que corregirlo a mano.
+alter table consultas remove partitioning;
+
+alter table consultas
+    drop primary key,
+    add primary key (id);
+
+alter table consultas
+    drop index uk_consultas_medico_fecha_activa,
+    add constraint uk_consultas_medico_fecha_activa unique (medico_id, fecha_activa);
+
+alter table consultas
+    add constraint fk_consultas_medico_id
+        foreign key (medico_id) references medicos(id),
+    add constraint fk_consultas_paciente_id
+        foreign key (paciente_id) references pacientes(id);
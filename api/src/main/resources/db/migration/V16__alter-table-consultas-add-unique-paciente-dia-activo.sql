@@ -0,0 +1,31 @@
+-- Antes de crear la restricción se deja una sola consulta activa por paciente y día (la más antigua).
+-- Las demás se copian en consultas_descartadas (V9) y luego se desactivan.
+create temporary table consultas_duplicadas_paciente as
+select c.id
+from consultas c
+    join (select paciente_id, date(fecha) as dia, min(id) as id_conservado
+          from consultas
+          where activo = 1
+          group by paciente_id, date(fecha)
+          having count(*) > 1) d
+        on c.paciente_id = d.paciente_id and date(c.fecha) = d.dia and c.id <> d.id_conservado
+where c.activo = 1;
+
+insert into consultas_descartadas (id, medico_id, paciente_id, fecha, motivo, descartada_en)
+select c.id, c.medico_id, c.paciente_id, c.fecha, 'V16: otra consulta activa del paciente el mismo día', now()
+from consultas c
+    join consultas_duplicadas_paciente d on d.id = c.id;
+
+update consultas c
+    join consultas_duplicadas_paciente d on d.id = c.id
+set c.activo = 0;
+
+drop temporary table consultas_duplicadas_paciente;
+
+-- Igual que fecha_activa: dia_activo es NULL cuando la consulta está cancelada,
+-- así solo las consultas activas cuentan para la regla de una consulta por paciente y día.
+alter table consultas
+    add dia_activo date generated always as (if(activo = 1, date(fecha), null)) stored;
+
+alter table consultas
+    add constraint uk_consultas_paciente_dia_activo unique (paciente_id, dia_activo);
@@ -0,0 +1,45 @@
+-- Consultas que una migración tuvo que desactivar para poder crear una restricción única.
+-- Se guarda una copia de cada una con el motivo, para avisar al paciente o reasignarla a mano.
+create table consultas_descartadas(
+
+                                      id bigint not null,
+                                      medico_id bigint not null,
+                                      paciente_id bigint not null,
+                                      fecha datetime not null,
+                                      motivo varchar(100) not null,
+                                      descartada_en datetime not null,
+
+                                      primary key(id)
+);
+
+-- Antes de crear la restricción se deja una sola consulta activa por médico y fecha (la más antigua).
+-- Las demás se copian en consultas_descartadas y luego se desactivan.
+create temporary table consultas_duplicadas_medico as
+select c.id
+from consultas c
+    join (select medico_id, fecha, min(id) as id_conservado
+          from consultas
+          where activo = 1
+          group by medico_id, fecha
+          having count(*) > 1) d
+        on c.medico_id = d.medico_id and c.fecha = d.fecha and c.id <> d.id_conservado
+where c.activo = 1;
+
+insert into consultas_descartadas (id, medico_id, paciente_id, fecha, motivo, descartada_en)
+select c.id, c.medico_id, c.paciente_id, c.fecha, 'V9: otra consulta activa del médico en la misma fecha', now()
+from consultas c
+    join consultas_duplicadas_medico d on d.id = c.id;
+
+update consultas c
+    join consultas_duplicadas_medico d on d.id = c.id
+set c.activo = 0;
+
+drop temporary table consultas_duplicadas_medico;
+
+-- fecha_activa es NULL cuando la consulta está cancelada, y los NULL no chocan en un índice único:
+-- así solo las consultas activas ocupan el horario del médico.
+alter table consultas
+    add fecha_activa datetime generated always as (if(activo = 1, fecha, null)) stored;
+
+alter table consultas
+    add constraint uk_consultas_medico_fecha_activa unique (medico_id, fecha_activa);
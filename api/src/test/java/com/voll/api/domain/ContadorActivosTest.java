@@ -0,0 +1,36 @@
+package com.voll.api.domain;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ContadorActivosTest {
+
+    @Test
+    @DisplayName("Un registro confirmado mientras se cuenta no se pierde: el recuento se repite")
+    void registroDuranteElRecuento() {
+        var enBaseDeDatos = new AtomicInteger(10);
+        var recuentos = new AtomicInteger();
+        var contador = new ContadorActivos[1];
+        contador[0] = new ContadorActivos(() -> {
+            var contado = enBaseDeDatos.get();
+            /* En el primer recuento otra request registra un médico después de que el COUNT leyó la tabla */
+            if (recuentos.getAndIncrement() == 0) {
+                enBaseDeDatos.incrementAndGet();
+                contador[0].sumar(1);
+            }
+            return contado;
+        }, Duration.ofMinutes(5));
+
+        assertThat(contador[0].total()).isEqualTo(11);
+        assertThat(recuentos.get()).isEqualTo(2);
+
+        contador[0].restar(1);
+        assertThat(contador[0].total()).isEqualTo(10);
+        assertThat(recuentos.get()).isEqualTo(2);
+    }
+}
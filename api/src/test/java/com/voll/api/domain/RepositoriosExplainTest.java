@@ -0,0 +1,345 @@
+package com.voll.api.domain;
+
+import com.voll.api.domain.consulta.ConsultaRepository;
+import com.voll.api.domain.medico.Especialidad;
+import com.voll.api.domain.medico.MedicoRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+ * Test de regresión de índices sobre ConsultaRepository y MedicoRepository (MySQL del perfil 'test',
+ * con las migraciones de Flyway aplicadas).
+ *
+ * Cada método del repositorio se invoca de verdad: el DataSource del test guarda el SQL que prepara
+ * Hibernate y los parámetros que enlaza, y ese mismo SQL es el que se pasa a EXPLAIN. Las invocaciones
+ * corren en una transacción que hace rollback, así los métodos que escriben no cambian nada.
+ *
+ * Antes se siembran datos suficientes (miles de médicos, pacientes y consultas, ANALYZE TABLE) para que
+ * MySQL elija los índices por costo y no por tablas casi vacías: con ellos cualquier type = ALL falla.
+ * La siembra se confirma (ANALYZE TABLE hace commit implícito) y se borra al terminar.
+ *
+ * Cada método nuevo de esos repositorios debe agregar aquí su invocación;
+ * de lo contrario el test "todasLasConsultasTienenSuExplain" falla.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class RepositoriosExplainTest {
+
+    /* IDs sembrados, lejos de los bloques de "secuencias" */
+    private static final long BASE = 800_000_000L;
+    private static final long BASE_HISTORICO = 810_000_000L;
+    private static final int MEDICOS = 2_000;
+    private static final int PACIENTES = 2_000;
+    private static final int CONSULTAS = 20_000;
+    private static final int CONSULTAS_HISTORICO = 5_000;
+
+    /*
+     * Consultas sembradas: una por hora desde INICIO (2030 a 2032),
+     * el 5 % canceladas. Médicos: el 10 % activos, repartidos entre las especialidades.
+     */
+    private static final LocalDateTime INICIO = LocalDateTime.of(2030, 1, 1, 0, 0);
+    private static final long MEDICO = BASE + 10;
+    private static final long OTRO_MEDICO = BASE + 20;
+    private static final long PACIENTE = BASE + 1;
+
+    private static final Map<String, Consumer<ConsultaRepository>> INVOCACIONES_CONSULTAS = Map.of(
+            "buscarAgendaDesde", r -> r.buscarAgendaDesde(LocalDateTime.of(2032, 4, 1, 0, 0)),
+            "buscarAgendaEnRango", r -> r.buscarAgendaEnRango(LocalDateTime.of(2030, 1, 7, 0, 0),
+                    LocalDateTime.of(2030, 1, 8, 23, 59, 59), List.of(MEDICO, OTRO_MEDICO), List.of(PACIENTE)),
+            "buscarFechasOcupadasMedico", r -> r.buscarFechasOcupadasMedico(MEDICO,
+                    LocalDateTime.of(2030, 1, 7, 0, 0), LocalDateTime.of(2030, 4, 6, 23, 59, 59)),
+            "exportarActivas", r -> {
+                try (var activas = r.exportarActivas()) {
+                    activas.findFirst();
+                }
+            },
+            "bloquearArchivables", r -> r.bloquearArchivables(LocalDateTime.of(2030, 1, 15, 0, 0), 1_000),
+            "copiarAlHistorico", r -> r.copiarAlHistorico(List.of(BASE + 1, BASE + 2)),
+            "eliminarArchivadas", r -> r.eliminarArchivadas(List.of(BASE + 1, BASE + 2)),
+            "historialMedico", r -> r.historialMedico(MEDICO, PageRequest.of(0, 20)),
+            "historialPaciente", r -> r.historialPaciente(PACIENTE, PageRequest.of(0, 20))
+    );
+
+    private static final Map<String, Consumer<MedicoRepository>> INVOCACIONES_MEDICOS = Map.of(
+            "buscarActivos", r -> r.buscarActivos(PageRequest.of(0, 10)),
+            "countByActivoTrue", MedicoRepository::countByActivoTrue,
+            "buscarActivosDespuesDe", r -> r.buscarActivosDespuesDe(BASE + 1_900, Limit.of(10)),
+            "buscarIdsActivosPorEspecialidad", r -> r.buscarIdsActivosPorEspecialidad(Especialidad.CARDIOLOGÍA),
+            "exportarActivos", r -> {
+                try (var activos = r.exportarActivos()) {
+                    activos.findFirst();
+                }
+            }
+    );
+
+    /*
+     * La exportación de consultas lee todas las activas, que son casi toda la tabla una vez que
+     * ArchivoConsultas saca las canceladas y las pasadas: ahí el recorrido completo es el plan más barato.
+     */
+    private static final Set<String> LECTURAS_COMPLETAS = Set.of("exportarActivas");
+
+    @Autowired
+    private DataSourceConCaptura dataSource;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private ConsultaRepository consultaRepository;
+    @Autowired
+    private MedicoRepository medicoRepository;
+
+    @BeforeAll
+    void sembrar() {
+        var jdbc = new JdbcTemplate(dataSource);
+        limpiar();
+        jdbc.batchUpdate("""
+                insert into medicos (id, nombre, email, documento, telefono, especialidad,
+                                     calle, barrio, codigo_postal, ciudad, estado, activo)
+                values (?, ?, ?, ?, '3012203162', ?, 'calle x', 'Suba', '111111', 'Bogotá', 'Bogotá', ?)
+                """, filas(MEDICOS, i -> new Object[]{BASE + i, "explain" + i, "explain-medico" + i + "@x.com",
+                String.format("9%09d", i), Especialidad.values()[i / 10 % Especialidad.values().length].name(),
+                i % 10 == 0}));
+        jdbc.batchUpdate("""
+                insert into pacientes (id, nombre, email, documento_identidad, telefono,
+                                       calle, barrio, ciudad, estado, codigo_postal, activo)
+                values (?, ?, ?, ?, '3012203162', 'calle x', 'Suba', 'Bogotá', 'Bogotá', '111111', 1)
+                """, filas(PACIENTES, i -> new Object[]{BASE + i, "explain" + i, "explain-paciente" + i + "@x.com",
+                String.format("9%09d", i)}));
+        jdbc.batchUpdate("""
+                insert into consultas (id, medico_id, paciente_id, fecha, activo) values (?, ?, ?, ?, ?)
+                """, filas(CONSULTAS, i -> new Object[]{BASE + i, BASE + i % MEDICOS, BASE + i % PACIENTES,
+                Timestamp.valueOf(INICIO.plusHours(i)), i % 20 != 0}));
+        jdbc.batchUpdate("""
+                insert into consultas_historico (id, medico_id, paciente_id, fecha, activo) values (?, ?, ?, ?, ?)
+                """, filas(CONSULTAS_HISTORICO, i -> new Object[]{BASE_HISTORICO + i, BASE + i % MEDICOS,
+                BASE + i % PACIENTES, Timestamp.valueOf(INICIO.minusHours(i + 1)), i % 20 != 0}));
+        jdbc.execute("analyze table medicos, pacientes, consultas, consultas_historico");
+    }
+
+    @AfterAll
+    void limpiar() {
+        var jdbc = new JdbcTemplate(dataSource);
+        jdbc.update("delete from consultas_historico where id between ? and ?", BASE_HISTORICO, BASE_HISTORICO + CONSULTAS_HISTORICO);
+        jdbc.update("delete from consultas where id between ? and ?", BASE, BASE + CONSULTAS);
+        jdbc.update("delete from pacientes where id between ? and ?", BASE, BASE + PACIENTES);
+        jdbc.update("delete from medicos where id between ? and ?", BASE, BASE + MEDICOS);
+    }
+
+    @Test
+    @DisplayName("Cada consulta declarada en los repositorios se invoca para EXPLAIN")
+    void todasLasConsultasTienenSuExplain() {
+        assertThat(INVOCACIONES_CONSULTAS.keySet()).containsExactlyInAnyOrderElementsOf(metodosDeclarados(ConsultaRepository.class));
+        assertThat(INVOCACIONES_MEDICOS.keySet()).containsExactlyInAnyOrderElementsOf(metodosDeclarados(MedicoRepository.class));
+    }
+
+    @Test
+    @DisplayName("Ninguna consulta de ConsultaRepository recorre una tabla completa")
+    void consultasDeConsultaRepositoryUsanIndices() throws Exception {
+        for (var invocacion : INVOCACIONES_CONSULTAS.entrySet()) {
+            var sentencias = capturar(() -> invocacion.getValue().accept(consultaRepository));
+            assertThat(sentencias).as(invocacion.getKey()).isNotEmpty();
+            for (var sentencia : sentencias) {
+                var recorridos = recorridosCompletos(explain(sentencia));
+                if (!LECTURAS_COMPLETAS.contains(invocacion.getKey())) {
+                    assertThat(recorridos).as(invocacion.getKey() + ": " + sentencia.sql()).isEmpty();
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Ninguna consulta de MedicoRepository recorre una tabla completa")
+    void consultasDeMedicoRepositoryUsanIndices() throws Exception {
+        for (var invocacion : INVOCACIONES_MEDICOS.entrySet()) {
+            var sentencias = capturar(() -> invocacion.getValue().accept(medicoRepository));
+            assertThat(sentencias).as(invocacion.getKey()).isNotEmpty();
+            for (var sentencia : sentencias) {
+                assertThat(recorridosCompletos(explain(sentencia))).as(invocacion.getKey() + ": " + sentencia.sql()).isEmpty();
+            }
+        }
+    }
+
+    /* Invoca el repositorio en una transacción que hace rollback y retorna las sentencias que preparó */
+    private List<SentenciaCapturada> capturar(Runnable invocacion) {
+        var transaccion = new TransactionTemplate(transactionManager);
+        return dataSource.capturar(() -> transaccion.executeWithoutResult(estado -> {
+            invocacion.run();
+            estado.setRollbackOnly();
+        }));
+    }
+
+    /* EXPLAIN del SQL capturado, con los mismos parámetros que enlazó Hibernate */
+    private List<FilaPlan> explain(SentenciaCapturada sentencia) throws Exception {
+        var filas = new ArrayList<FilaPlan>();
+        try (var conexion = dataSource.getTargetDataSource().getConnection();
+             var explain = conexion.prepareStatement("EXPLAIN " + sentencia.sql())) {
+            for (var parametro : sentencia.parametros()) {
+                parametro.metodo().invoke(explain, parametro.argumentos());
+            }
+            try (var plan = explain.executeQuery()) {
+                while (plan.next()) {
+                    filas.add(new FilaPlan(plan.getString("select_type"), plan.getString("table"), plan.getString("type")));
+                }
+            }
+        }
+        return filas;
+    }
+
+    /*
+     * Tablas que el plan recorre completas. No cuentan la tabla destino de un INSERT ... SELECT
+     * ni las tablas temporales del propio plan (<union1,2>, <derived2>, ...).
+     */
+    private List<String> recorridosCompletos(List<FilaPlan> plan) {
+        return plan.stream()
+                .filter(fila -> "ALL".equals(fila.tipo()) && !"INSERT".equals(fila.tipoSelect()))
+                .map(FilaPlan::tabla)
+                .filter(tabla -> tabla != null && !tabla.startsWith("<"))
+                .toList();
+    }
+
+    private List<String> metodosDeclarados(Class<?> repositorio) {
+        return Arrays.stream(repositorio.getDeclaredMethods())
+                .filter(m -> !m.isSynthetic() && !m.isDefault())
+                .map(Method::getName)
+                .distinct()
+                .collect(Collectors.toList());
+    }
+
+    private static List<Object[]> filas(int cantidad, IntFunction<Object[]> fila) {
+        return IntStream.range(0, cantidad).mapToObj(fila).toList();
+    }
+
+    private record FilaPlan(String tipoSelect, String tabla, String tipo) {
+    }
+
+    private record SentenciaCapturada(String sql, List<Parametro> parametros) {
+    }
+
+    /* Un setXxx(indice, valor, ...) del PreparedStatement, para repetirlo sobre el EXPLAIN */
+    private record Parametro(Method metodo, Object[] argumentos) {
+    }
+
+    /*
+     * Envuelve el pool del perfil 'test': mientras "capturar" está en curso, guarda el SQL de cada
+     * PreparedStatement y los parámetros que se le enlazan.
+     */
+    static class DataSourceConCaptura extends DelegatingDataSource {
+
+        private final List<SentenciaCapturada> capturadas = new ArrayList<>();
+        private volatile boolean capturando;
+
+        DataSourceConCaptura(DataSource dataSource) {
+            super(dataSource);
+        }
+
+        synchronized List<SentenciaCapturada> capturar(Runnable invocacion) {
+            capturadas.clear();
+            capturando = true;
+            try {
+                invocacion.run();
+            } finally {
+                capturando = false;
+            }
+            return List.copyOf(capturadas);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return conCaptura(super.getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String usuario, String password) throws SQLException {
+            return conCaptura(super.getConnection(usuario, password));
+        }
+
+        private Connection conCaptura(Connection conexion) {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, (proxy, metodo, argumentos) -> {
+                        var resultado = invocar(conexion, metodo, argumentos);
+                        if (capturando && "prepareStatement".equals(metodo.getName())) {
+                            var sentencia = new SentenciaCapturada((String) argumentos[0], new ArrayList<>());
+                            capturadas.add(sentencia);
+                            return conParametros((PreparedStatement) resultado, sentencia);
+                        }
+                        return resultado;
+                    });
+        }
+
+        private PreparedStatement conParametros(PreparedStatement statement, SentenciaCapturada sentencia) {
+            return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class}, (proxy, metodo, argumentos) -> {
+                        if (metodo.getName().startsWith("set") && argumentos != null && argumentos.length >= 2
+                                && argumentos[0] instanceof Integer) {
+                            sentencia.parametros().add(new Parametro(metodo, argumentos.clone()));
+                        }
+                        return invocar(statement, metodo, argumentos);
+                    });
+        }
+
+        private static Object invocar(Object destino, Method metodo, Object[] argumentos) throws Throwable {
+            try {
+                return metodo.invoke(destino, argumentos);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    @TestConfiguration
+    static class CapturaDeSentencias {
+
+        @Bean
+        static BeanPostProcessor capturarSentencias() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String nombre) {
+                    return bean instanceof DataSource dataSource && !(bean instanceof DataSourceConCaptura)
+                            ? new DataSourceConCaptura(dataSource)
+                            : bean;
+                }
+            };
+        }
+    }
+}
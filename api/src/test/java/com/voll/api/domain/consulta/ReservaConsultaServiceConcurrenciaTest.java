@@ -0,0 +1,323 @@
+package com.voll.api.domain.consulta;
+
+import com.voll.api.domain.ValidacionException;
+import com.voll.api.domain.consulta.agenda.IndiceAgenda;
+import com.voll.api.domain.consulta.agenda.AgendaConsulta;
+import com.voll.api.domain.consulta.bloqueo.BloqueosReserva;
+import com.voll.api.domain.consulta.dto_consulta.ItemLoteDTO;
+import com.voll.api.domain.consulta.validations.PipelineValidaciones;
+import com.voll.api.domain.consulta.validations.ValidadorMedicoConOtraConsultaEnElMismoHorario;
+import com.voll.api.domain.consulta.validations.ValidadorPacienteSinOtraConsultaEnElMismoDia;
+import com.voll.api.domain.medico.Medico;
+import com.voll.api.domain.medico.Especialidad;
+import com.voll.api.domain.medico.MedicoRepository;
+import com.voll.api.domain.medico.asignacion.AsignacionAleatoria;
+import com.voll.api.domain.medico.asignacion.CandidatosPorEspecialidad;
+import com.voll.api.domain.paciente.Paciente;
+import com.voll.api.domain.paciente.PacienteRepositoy;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/*
+ * Test de estrés de ReservaConsultaService con muchos hilos reservando a la vez
+ * los mismos médicos y horarios.
+ *
+ * No levanta el contexto de Spring ni usa base de datos: los repositorios son mocks y
+ * saveAndFlush guarda las consultas en un mapa SIN restricción única. Así, si dos hilos
+ * pasaran las validaciones para el mismo médico y horario, ambas consultas quedarían
+ * guardadas; la única protección es BloqueosReserva junto con el IndiceAgenda.
+ *
+ * Se prueban tres cargas: todas las reservas informan el médico, todas lo dejan a la estrategia
+ * de asignación (AsignacionAleatoria sobre los mismos médicos), y una mezcla de ambas, que es
+ * la que compite entre el lock de la especialidad y el del médico. La mezcla se repite con la
+ * mitad de los hilos reservando en lote, que toma todos sus locks de una vez.
+ */
+class ReservaConsultaServiceConcurrenciaTest {
+
+    private static final int MEDICOS = 8;
+    private static final int HILOS = 32;
+    private static final int RESERVAS_POR_HILO = 50;
+    private static final int RESERVAS_POR_LOTE = 5;
+    /* La misma especialidad escrita de distintas formas comparte el lock de la especialidad */
+    private static final List<String> ESPECIALIDAD = List.of("ortopedia", "Ortopedia", "ORTOPEDIA");
+
+    private final Map<String, List<Consulta>> guardadas = new ConcurrentHashMap<>();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private ConsultaRepository consultaRepository;
+    private ReservaConsultaService service;
+
+    @BeforeEach
+    void setUp() {
+        consultaRepository = mock(ConsultaRepository.class);
+        when(consultaRepository.saveAndFlush(any())).thenAnswer(invocacion -> {
+            Consulta consulta = invocacion.getArgument(0);
+            /* Simula la latencia del INSERT para agrandar la ventana de carrera */
+            Thread.sleep(1);
+            guardar(consulta);
+            return consulta;
+        });
+        when(consultaRepository.saveAll(any())).thenAnswer(invocacion -> {
+            List<Consulta> consultas = invocacion.getArgument(0);
+            Thread.sleep(1);
+            consultas.forEach(this::guardar);
+            return consultas;
+        });
+        /* Un lote lee la agenda de la base de datos, no del IndiceAgenda */
+        when(consultaRepository.buscarAgendaEnRango(any(), any(), any(), any())).thenAnswer(invocacion ->
+                guardadas.values().stream()
+                        .flatMap(List::stream)
+                        .map(c -> new AgendaConsulta(c.getMedico().getId(), c.getPaciente().getId(), c.getFecha()))
+                        .toList());
+
+        var medicoRepository = mock(MedicoRepository.class);
+        when(medicoRepository.findActivoById(anyLong())).thenReturn(Optional.of(true));
+        when(medicoRepository.getReferenceById(anyLong())).thenAnswer(invocacion ->
+                new Medico(invocacion.getArgument(0), true, null, null, null, null, null, null));
+        when(medicoRepository.findAllById(any())).thenAnswer(invocacion -> ids(invocacion.getArgument(0)).stream()
+                .map(id -> new Medico(id, true, null, null, null, null, null, null))
+                .toList());
+
+        var pacienteRepositoy = mock(PacienteRepositoy.class);
+        when(pacienteRepositoy.findActivoById(anyLong())).thenReturn(Optional.of(true));
+        when(pacienteRepositoy.getReferenceById(anyLong())).thenAnswer(invocacion ->
+                new Paciente(invocacion.getArgument(0), true, null, null, null, null, null));
+        when(pacienteRepositoy.findAllById(any())).thenAnswer(invocacion -> ids(invocacion.getArgument(0)).stream()
+                .map(id -> new Paciente(id, true, null, null, null, null, null))
+                .toList());
+
+        var pipeline = new PipelineValidaciones();
+        ReflectionTestUtils.setField(pipeline, "validadores", List.of(
+                new ValidadorMedicoConOtraConsultaEnElMismoHorario(),
+                new ValidadorPacienteSinOtraConsultaEnElMismoDia()));
+        ReflectionTestUtils.setField(pipeline, "registry", registry);
+        ReflectionTestUtils.invokeMethod(pipeline, "ordenar");
+
+        service = new ReservaConsultaService();
+        ReflectionTestUtils.setField(service, "consultaRepository", consultaRepository);
+        ReflectionTestUtils.setField(service, "medicoRepository", medicoRepository);
+        ReflectionTestUtils.setField(service, "pacienteRepositoy", pacienteRepositoy);
+        ReflectionTestUtils.setField(service, "pipelineValidaciones", pipeline);
+        var indiceAgenda = new IndiceAgenda();
+        var candidatos = mock(CandidatosPorEspecialidad.class);
+        when(candidatos.de(Especialidad.ORTOPEDIA)).thenReturn(LongStream.rangeClosed(1, MEDICOS).boxed().toList());
+        var asignacion = new AsignacionAleatoria();
+        ReflectionTestUtils.setField(asignacion, "candidatos", candidatos);
+        ReflectionTestUtils.setField(asignacion, "indiceAgenda", indiceAgenda);
+
+        ReflectionTestUtils.setField(service, "indiceAgenda", indiceAgenda);
+        ReflectionTestUtils.setField(service, "asignacionMedico", asignacion);
+        ReflectionTestUtils.setField(service, "candidatosPorEspecialidad", candidatos);
+        ReflectionTestUtils.setField(service, "validator", Validation.buildDefaultValidatorFactory().getValidator());
+        ReflectionTestUtils.setField(service, "bloqueosReserva", bloqueos(256, 10_000));
+        ReflectionTestUtils.setField(service, "transactionTemplate", new TransactionTemplate(new TransaccionesEnMemoria()));
+    }
+
+    @Test
+    @DisplayName("Con muchos hilos reservando los mismos horarios, ningún médico queda con dos consultas en la misma hora")
+    void reservasConcurrentesSinDobleReserva() throws Exception {
+        reservarConcurrentemente(random -> (long) random.nextInt(1, MEDICOS + 1));
+    }
+
+    @Test
+    @DisplayName("Con asignación automática del médico tampoco quedan dos consultas en la misma hora")
+    void reservasAsignadasConcurrentesSinDobleReserva() throws Exception {
+        reservarConcurrentemente(random -> null);
+    }
+
+    @Test
+    @DisplayName("Mezclando reservas con médico informado y asignado, ningún médico queda con dos consultas en la misma hora")
+    void reservasMixtasConcurrentesSinDobleReserva() throws Exception {
+        reservarConcurrentemente(random -> random.nextBoolean() ? (long) random.nextInt(1, MEDICOS + 1) : null);
+    }
+
+    @Test
+    @DisplayName("Reservas en lote compitiendo con reservas individuales no dejan dos consultas en la misma hora")
+    void lotesConcurrentesSinDobleReserva() throws Exception {
+        reservarConcurrentemente(random -> random.nextBoolean() ? (long) random.nextInt(1, MEDICOS + 1) : null, true);
+    }
+
+    @Test
+    @DisplayName("Si el batch viola la restricción única, se reintenta de a una y solo se rechaza la consulta en conflicto")
+    void loteConConflictoEnLaBaseDeDatos() {
+        var lunes = LocalDate.now().with(TemporalAdjusters.next(DayOfWeek.MONDAY));
+        var ocupadaEnOtroNodo = lunes.atTime(10, 0);
+        var conflicto = new DataIntegrityViolationException("Duplicate entry for key 'consultas.uk_consultas_medico_fecha_activa'");
+        doThrow(conflicto).when(consultaRepository).saveAll(any());
+        doThrow(conflicto).when(consultaRepository).saveAndFlush(argThat(c -> c != null && c.getFecha().equals(ocupadaEnOtroNodo)));
+
+        var resultado = service.reservarLote(List.of(
+                new ReservaConsultaData(1L, 1L, lunes.atTime(9, 0), null),
+                new ReservaConsultaData(1L, 2L, ocupadaEnOtroNodo, null),
+                new ReservaConsultaData(null, 3L, lunes.atTime(11, 0), "Ortopedia")));
+
+        assertThat(resultado.resultados()).extracting(ItemLoteDTO::exito).containsExactly(true, false, true);
+        assertThat(resultado.resultados().get(1).error()).isEqualTo("Otra reserva ocupó ese horario del médico, intente nuevamente");
+        assertThat(guardadas).hasSize(2);
+    }
+
+    private void reservarConcurrentemente(Function<ThreadLocalRandom, Long> medico) throws Exception {
+        reservarConcurrentemente(medico, false);
+    }
+
+    /*
+     * Cada reserva usa el médico que retorna "medico" (null: se asigna automáticamente) y una hora al azar.
+     * Con "conLotes", la mitad de los hilos envía sus reservas en lotes de RESERVAS_POR_LOTE.
+     */
+    private void reservarConcurrentemente(Function<ThreadLocalRandom, Long> medico, boolean conLotes) throws Exception {
+        var lunes = LocalDate.now().with(TemporalAdjusters.next(DayOfWeek.MONDAY));
+        var idsPacientes = new AtomicLong();
+        var aceptadas = new AtomicInteger();
+        var rechazadas = new AtomicInteger();
+        var inicio = new CountDownLatch(1);
+
+        var executor = Executors.newFixedThreadPool(HILOS);
+        var tareas = new ArrayList<Future<?>>();
+        for (int h = 0; h < HILOS; h++) {
+            var enLotes = conLotes && h % 2 == 1;
+            tareas.add(executor.submit(() -> {
+                inicio.await();
+                var random = ThreadLocalRandom.current();
+                for (int i = 0; enLotes && i < RESERVAS_POR_HILO; i += RESERVAS_POR_LOTE) {
+                    var lote = new ArrayList<ReservaConsultaData>();
+                    for (int j = 0; j < RESERVAS_POR_LOTE; j++) {
+                        var idMedico = medico.apply(random);
+                        var fecha = lunes.atTime(random.nextInt(IndiceAgenda.HORA_APERTURA, IndiceAgenda.ULTIMA_HORA + 1), 0);
+                        lote.add(new ReservaConsultaData(idMedico, idsPacientes.incrementAndGet(), fecha,
+                                idMedico == null ? ESPECIALIDAD.get(random.nextInt(ESPECIALIDAD.size())) : null));
+                    }
+                    try {
+                        for (var item : service.reservarLote(lote).resultados()) {
+                            (item.exito() ? aceptadas : rechazadas).incrementAndGet();
+                        }
+                    } catch (ValidacionException e) {
+                        rechazadas.addAndGet(lote.size());
+                    }
+                }
+                for (int i = 0; !enLotes && i < RESERVAS_POR_HILO; i++) {
+                    var idMedico = medico.apply(random);
+                    var fecha = lunes.atTime(random.nextInt(IndiceAgenda.HORA_APERTURA, IndiceAgenda.ULTIMA_HORA + 1), 0);
+                    try {
+                        service.reservar(new ReservaConsultaData(idMedico, idsPacientes.incrementAndGet(), fecha,
+                                idMedico == null ? ESPECIALIDAD.get(random.nextInt(ESPECIALIDAD.size())) : null));
+                        aceptadas.incrementAndGet();
+                    } catch (ValidacionException e) {
+                        rechazadas.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        inicio.countDown();
+        for (var tarea : tareas) {
+            tarea.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        var horariosDisponibles = MEDICOS * (IndiceAgenda.ULTIMA_HORA - IndiceAgenda.HORA_APERTURA + 1);
+        assertThat(guardadas.values()).allSatisfy(consultas -> assertThat(consultas).hasSize(1));
+        assertThat(aceptadas.get()).isEqualTo(guardadas.size()).isLessThanOrEqualTo(horariosDisponibles);
+        assertThat(aceptadas.get() + rechazadas.get()).isEqualTo(HILOS * RESERVAS_POR_HILO);
+    }
+
+    @Test
+    @DisplayName("Si el lock del médico no se libera dentro de la espera máxima, la reserva se rechaza")
+    void reservaRechazadaPorTimeout() throws Exception {
+        var bloqueos = bloqueos(16, 50);
+        var dia = LocalDate.now().plusDays(1);
+        var tomado = new CountDownLatch(1);
+        var liberar = new CountDownLatch(1);
+
+        var otroHilo = Executors.newSingleThreadExecutor();
+        otroHilo.submit(() -> bloqueos.conMedico(1L, dia, () -> {
+            tomado.countDown();
+            try {
+                liberar.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        }));
+        tomado.await();
+
+        assertThatThrownBy(() -> bloqueos.conMedico(1L, dia, () -> null))
+                .isInstanceOf(ValidacionException.class);
+        assertThat(registry.get("consulta.reserva.bloqueo.timeout").counter().count()).isEqualTo(1);
+
+        liberar.countDown();
+        otroHilo.shutdown();
+    }
+
+    private void guardar(Consulta consulta) {
+        guardadas.computeIfAbsent(consulta.getMedico().getId() + "@" + consulta.getFecha(),
+                k -> new CopyOnWriteArrayList<>()).add(consulta);
+    }
+
+    private static List<Long> ids(Iterable<Long> ids) {
+        var lista = new ArrayList<Long>();
+        ids.forEach(lista::add);
+        return lista;
+    }
+
+    private BloqueosReserva bloqueos(int franjas, long esperaMaximaMs) {
+        var bloqueos = new BloqueosReserva();
+        ReflectionTestUtils.setField(bloqueos, "franjas", franjas);
+        ReflectionTestUtils.setField(bloqueos, "esperaMaximaMs", esperaMaximaMs);
+        ReflectionTestUtils.setField(bloqueos, "registry", registry);
+        ReflectionTestUtils.invokeMethod(bloqueos, "inicializar");
+        return bloqueos;
+    }
+
+    /*
+     * TransactionManager sin base de datos: solo ejecuta las sincronizaciones (afterCommit),
+     * que es lo que usa el servicio para registrar la consulta en el IndiceAgenda.
+     */
+    private static class TransaccionesEnMemoria extends AbstractPlatformTransactionManager {
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+}
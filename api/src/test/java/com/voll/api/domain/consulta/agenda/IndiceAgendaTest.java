@@ -0,0 +1,85 @@
+package com.voll.api.domain.consulta.agenda;
+
+import com.voll.api.domain.consulta.ConsultaRepository;
+import com.voll.api.domain.medico.Especialidad;
+import com.voll.api.domain.medico.asignacion.CandidatosPorEspecialidad;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/*
+ * Reconstrucción del IndiceAgenda mientras llegan reservas y cancelaciones.
+ *
+ * El mock de buscarAgendaDesde llama a registrar/liberar en medio de la consulta, como lo haría
+ * el afterCommit de una reserva que se confirma mientras se lee la base de datos.
+ */
+class IndiceAgendaTest {
+
+    private final ConsultaRepository repository = mock(ConsultaRepository.class);
+    private final IndiceAgenda indice = new IndiceAgenda();
+    private LocalDateTime lunesALasDiez;
+
+    @BeforeEach
+    void setUp() {
+        var candidatos = mock(CandidatosPorEspecialidad.class);
+        when(candidatos.de(any())).thenReturn(List.of());
+        when(candidatos.de(Especialidad.ORTOPEDIA)).thenReturn(List.of(1L, 2L));
+
+        var transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any())).thenAnswer(invocacion ->
+                invocacion.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+
+        ReflectionTestUtils.setField(indice, "repository", repository);
+        ReflectionTestUtils.setField(indice, "candidatos", candidatos);
+        ReflectionTestUtils.setField(indice, "transactionTemplate", transactionTemplate);
+        lunesALasDiez = LocalDate.now().with(TemporalAdjusters.next(DayOfWeek.MONDAY)).atTime(10, 0);
+    }
+
+    @Test
+    @DisplayName("Una reserva registrada mientras se reconstruye el índice no se pierde")
+    void reservaDuranteLaReconstruccion() {
+        when(repository.buscarAgendaDesde(any())).thenAnswer(invocacion -> {
+            indice.registrar(2L, 20L, lunesALasDiez);
+            return List.of(new AgendaConsulta(1L, 10L, lunesALasDiez));
+        });
+
+        indice.reconstruir();
+
+        assertThat(indice.medicoOcupado(1L, lunesALasDiez)).isTrue();
+        assertThat(indice.medicoOcupado(2L, lunesALasDiez)).isTrue();
+        assertThat(indice.pacienteConConsultaEnElDia(20L, lunesALasDiez.toLocalDate())).isTrue();
+        assertThat(indice.medicosLibresPorHora(Especialidad.ORTOPEDIA, lunesALasDiez.toLocalDate())[10 - IndiceAgenda.HORA_APERTURA])
+                .isZero();
+    }
+
+    @Test
+    @DisplayName("Una cancelación recibida mientras se reconstruye el índice se aplica sobre la agenda nueva")
+    void cancelacionDuranteLaReconstruccion() {
+        when(repository.buscarAgendaDesde(any())).thenAnswer(invocacion -> {
+            /* La consulta leyó la reserva antes de que se confirmara su cancelación */
+            indice.liberar(1L, 10L, lunesALasDiez);
+            return List.of(new AgendaConsulta(1L, 10L, lunesALasDiez));
+        });
+
+        indice.reconstruir();
+
+        assertThat(indice.medicoOcupado(1L, lunesALasDiez)).isFalse();
+        assertThat(indice.pacienteConConsultaEnElDia(10L, lunesALasDiez.toLocalDate())).isFalse();
+        assertThat(indice.medicosLibresPorHora(Especialidad.ORTOPEDIA, lunesALasDiez.toLocalDate())[10 - IndiceAgenda.HORA_APERTURA])
+                .isEqualTo(2);
+    }
+}
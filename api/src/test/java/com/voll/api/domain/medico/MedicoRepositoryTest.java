@@ -1,9 +1,6 @@
 package com.voll.api.domain.medico;
 
-import com.voll.api.domain.consulta.Consulta;
 import com.voll.api.domain.direccion.DireccionData;
-import com.voll.api.domain.paciente.Paciente;
-import com.voll.api.domain.paciente.PacienteDataTest;
 import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -12,10 +9,6 @@ import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabas
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.test.context.ActiveProfiles;
 
-import java.time.DayOfWeek;
-import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.time.temporal.TemporalAdjusters;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -66,7 +59,7 @@ class MedicoRepositoryTest {
      * directamente desde el contexto de persistencia.
      *
      * Nos permite:
-     * - Persistir entidades (Médico, Paciente, Consulta)
+     * - Persistir entidades (Médico)
      * - Controlar exactamente el escenario que queremos probar
      * - Evitar depender de múltiples repositories dentro del test
      *
@@ -78,96 +71,38 @@ class MedicoRepositoryTest {
 
     @Test
     @DisplayName("""
-            Debería devolver null cuando el médico buscado
-            existe pero no está disponible en esa fecha.
+            Debería devolver solo los IDs de los médicos activos de la especialidad solicitada.
 
             Escenario validado:
-            - El médico existe.
-            - Es de la especialidad solicitada.
-            - Tiene una consulta en esa fecha.
-            - No hay otro médico disponible.
+            - Un médico activo de cardiología.
+            - Un médico de cardiología desactivado.
+            - Un médico activo de otra especialidad.
             """)
-    void elegirMedicoAleatorioDisponibleEnLaFechaEscenario1() {
+    void buscarIdsActivosPorEspecialidadEscenario1() {
+        var activo = registrarMedico("Med1", "med1@gmail.com", "1011111111", Especialidad.CARDIOLOGÍA);
+        var inactivo = registrarMedico("Med2", "med2@gmail.com", "1011111112", Especialidad.CARDIOLOGÍA);
+        registrarMedico("Med3", "med3@gmail.com", "1011111113", Especialidad.ORTOPEDIA);
+        inactivo.eliminar();
+        em.flush();
 
-        /*
-         * Generamos una fecha dinámica: el próximo lunes a las 10:00.
-         *
-         * No se utiliza una fecha fija para evitar:
-         * - Tests frágiles en el tiempo.
-         * - Activar reglas de negocio relacionadas con fechas pasadas.
-         */
-        var lunesSiguienteALas10 =
-                LocalDate.now()
-                        .with(TemporalAdjusters.next(DayOfWeek.MONDAY))
-                        .atTime(10, 0);
-
-        /*
-         * Se persistirse:
-         * - Un médico activo de cardiología.
-         * - Un paciente.
-         * - Una consulta para ese médico exactamente
-         *   en lunesSiguienteALas10.
-         *
-         * De esta forma garantizamos que el médico esté ocupado.
-         */
-
-        var medico = registrarMedico("Med1", "med1@gmail.com", "1011111111", Especialidad.CARDIOLOGÍA);
-        var paciente = registrarPaciente("Paciente1", "paciente1@gmail.com", "0111111111");
-        registrarConsulta(medico, paciente, lunesSiguienteALas10);
+        var candidatos = medicoRepository.buscarIdsActivosPorEspecialidad(Especialidad.CARDIOLOGÍA);
 
         /*
-         * Ejecutamos el método bajo prueba.
-         *
-         * Se busca un médico disponible de cardiología
-         * para la fecha indicada.
-         */
-        var medicoLibre = medicoRepository.elegirMedicoAleatorioDisponibleEnLaFecha(
-                        Especialidad.CARDIOLOGÍA,
-                        lunesSiguienteALas10
-                );
-
-        /*
-         * Validamos que el resultado sea null.
-         *
-         * Esto confirma que:
-         * - El médico existe,
-         * - Pero no está disponible,
-         * - Y el método correctamente representa la ausencia
-         *   de disponibilidad devolviendo null.
-         */
-        assertThat(medicoLibre).isNull();
+        Las estrategias de asignación eligen entre estos IDs;
+        el médico desactivado y el de otra especialidad nunca son candidatos.
+        */
+        assertThat(candidatos).containsExactly(activo.getId());
     }
 
     @Test
     @DisplayName("""
-            Debería devolver un Medico cuando el médico este disponible en esa fecha.
-            
-            - Retorna un Medico disponible""")
-    void elegirMedicoAleatorioDisponibleEnLaFechaEscenario2() {
-        var lunesSiguienteALas10 =
-                LocalDate.now()
-                        .with(TemporalAdjusters.next(DayOfWeek.MONDAY))
-                        .atTime(10, 0);
+            Debería devolver una lista vacía cuando la especialidad no tiene médicos activos.""")
+    void buscarIdsActivosPorEspecialidadEscenario2() {
+        registrarMedico("Med1", "med1@gmail.com", "1011111111", Especialidad.ORTOPEDIA);
 
-        var medico = registrarMedico("Med1", "med1@gmail.com", "1011111111", Especialidad.CARDIOLOGÍA);
+        var candidatos = medicoRepository.buscarIdsActivosPorEspecialidad(Especialidad.CARDIOLOGÍA);
 
-
-        var medicoLibre = medicoRepository.elegirMedicoAleatorioDisponibleEnLaFecha(
-                Especialidad.CARDIOLOGÍA,
-                lunesSiguienteALas10
-        );
-
-        /*
-        Validamos que la consulta traiga a un medico aleatorio disponible.
-        En este caso, como el unico médico disponible es "medico".
-
-        retornorá "medico".
-        */
-        assertThat(medicoLibre).isEqualTo(medico);
-    }
-
-    private void registrarConsulta(Medico medico, Paciente paciente, LocalDateTime fecha) {
-        em.persist(new Consulta(medico, paciente, fecha));
+        assertThat(candidatos).isEmpty();
     }
 
     private Medico registrarMedico(String nombre, String email, String documento, Especialidad especialidad){
@@ -176,12 +111,6 @@ class MedicoRepositoryTest {
         return medico;
     }
 
-    private Paciente registrarPaciente(String nombre, String email, String documento){
-        var paciente = new Paciente(datosPaciente(nombre, email, documento));
-        em.persist(paciente);
-        return paciente;
-    }
-
     private DireccionData datosDireccion(){
         return new DireccionData(
                 "calle x",
@@ -204,16 +133,6 @@ class MedicoRepositoryTest {
         );
     }
 
-    private PacienteDataTest datosPaciente(String nombre, String email, String documento){
-        return new  PacienteDataTest(
-                nombre,
-                email,
-                "3012206162",
-                documento,
-                datosDireccion()
-        );
-    }
-
 
 }
 
@@ -0,0 +1,112 @@
+package com.voll.api.domain.paciente;
+
+import com.voll.api.domain.direccion.DireccionData;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.ArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+ * Benchmark de inserciones por segundo sobre la tabla "pacientes" (MySQL del perfil 'test').
+ *
+ * - Antes : línea base en JDBC, un INSERT por registro y por round-trip. No pasa por Hibernate:
+ *           representa el patrón de round-trips de GenerationType.IDENTITY (que necesita la clave
+ *           generada de cada fila y no puede agrupar los INSERT), sin su costo de persist y flush.
+ * - Después: saveAll + flush con IDs de la tabla "secuencias", hibernate.jdbc.batch_size
+ *           y rewriteBatchedStatements=true (INSERT multi-fila).
+ *
+ * No corre con "mvn test"; se ejecuta con:  mvn test -Pbenchmark
+ * Los resultados se imprimen por consola. Cada test hace rollback al terminar (@DataJpaTest).
+ */
+@Tag("benchmark")
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+class InsercionEnBatchBenchmarkTest {
+
+    private static final int REGISTROS = 2_000;
+
+    @Autowired
+    private PacienteRepositoy repository;
+    @Autowired
+    private EntityManager em;
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    @DisplayName("Inserciones por segundo: un INSERT JDBC por registro contra batch con IDs de 'secuencias'")
+    void insercionesPorSegundo() throws SQLException {
+        var antes = medir(() -> insertarUnoPorUno("antes"));
+        var despues = medir(() -> insertarEnBatch("despues"));
+
+        System.out.printf("Pacientes insertados: %d%n", REGISTROS);
+        System.out.printf("Antes   (JDBC, 1 INSERT por round-trip)  : %,.0f inserciones/s%n", REGISTROS / antes);
+        System.out.printf("Después (secuencias + batch de Hibernate): %,.0f inserciones/s%n", REGISTROS / despues);
+
+        assertThat(repository.count()).isGreaterThanOrEqualTo(2L * REGISTROS);
+    }
+
+    /*
+     * Línea base JDBC: un executeUpdate por fila, sin batch.
+     * Los IDs explícitos quedan lejos de los bloques de "secuencias".
+     */
+    private void insertarUnoPorUno(String prefijo) throws SQLException {
+        var conexion = DataSourceUtils.getConnection(dataSource);
+        var sql = """
+                insert into pacientes (id, nombre, email, documento_identidad, telefono, calle, numero, complemento,
+                                       barrio, ciudad, estado, codigo_postal, activo)
+                values (?, ?, ?, ?, '3012203162', 'calle x', null, null, 'Suba', 'Bogotá', 'Bogotá', '111111', 1)
+                """;
+        try (var ps = conexion.prepareStatement(sql)) {
+            for (int i = 0; i < REGISTROS; i++) {
+                ps.setLong(1, 900_000_000L + i);
+                ps.setString(2, prefijo + i);
+                ps.setString(3, prefijo + i + "@x.com");
+                ps.setString(4, documento(1, i));
+                ps.executeUpdate();
+            }
+        }
+    }
+
+    private void insertarEnBatch(String prefijo) {
+        var pacientes = new ArrayList<Paciente>(REGISTROS);
+        for (int i = 0; i < REGISTROS; i++) {
+            pacientes.add(new Paciente(new PacienteDataTest(prefijo + i, prefijo + i + "@x.com", "3012203162",
+                    documento(2, i), direccion())));
+        }
+        repository.saveAll(pacientes);
+        repository.flush();
+        em.clear();
+    }
+
+    /* Documento único de 10 dígitos por tanda e índice */
+    private String documento(int tanda, int i) {
+        return String.format("%d%09d", tanda, i);
+    }
+
+    private DireccionData direccion() {
+        return new DireccionData("calle x", null, null, "Suba", "111111", "Bogotá", "Bogotá");
+    }
+
+    private double medir(Insercion insercion) throws SQLException {
+        var inicio = System.nanoTime();
+        insercion.ejecutar();
+        return (System.nanoTime() - inicio) / 1_000_000_000.0;
+    }
+
+    @FunctionalInterface
+    private interface Insercion {
+        void ejecutar() throws SQLException;
+    }
+}
@@ -0,0 +1,126 @@
+package com.voll.api.infra.datasource;
+
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+ * Enrutamiento entre primaria y réplica con dos bases H2 embebidas.
+ * Cada base tiene una tabla "origen" con su propio nombre, así cada lectura dice de dónde vino.
+ */
+class DataSourceEnrutadoTest {
+
+    private EmbeddedDatabase primaria;
+    private EmbeddedDatabase replica;
+    private JdbcTemplate jdbc;
+    private TransactionTemplate escritura;
+    private TransactionTemplate lectura;
+
+    @BeforeEach
+    void crearBases() {
+        primaria = base("primaria");
+        replica = base("replica");
+        var dataSource = DataSourceReplicaConfiguration.enrutar(primaria, replica);
+        var transactionManager = new DataSourceTransactionManager(dataSource);
+        jdbc = new JdbcTemplate(dataSource);
+        escritura = new TransactionTemplate(transactionManager);
+        lectura = new TransactionTemplate(transactionManager);
+        lectura.setReadOnly(true);
+    }
+
+    @AfterEach
+    void cerrarBases() {
+        ContextoEnrutamiento.limpiar();
+        primaria.shutdown();
+        replica.shutdown();
+    }
+
+    @Test
+    @DisplayName("Las transacciones de solo lectura van a la réplica y las de escritura a la primaria")
+    void enrutaPorTipoDeTransaccion() {
+        assertThat(leer(lectura)).isEqualTo("replica");
+        assertThat(leer(escritura)).isEqualTo("primaria");
+        assertThat(origen()).as("sin transacción").isEqualTo("primaria");
+    }
+
+    @Test
+    @DisplayName("Dentro de una request, después de escribir las lecturas van a la primaria")
+    void leeSusEscriturasEnLaMismaRequest() {
+        ContextoEnrutamiento.iniciar(false);
+        assertThat(leer(lectura)).isEqualTo("replica");
+
+        escritura.executeWithoutResult(estado -> jdbc.update("update origen set nombre = nombre"));
+
+        assertThat(ContextoEnrutamiento.escribio()).isTrue();
+        assertThat(leer(lectura)).isEqualTo("primaria");
+    }
+
+    @Test
+    @DisplayName("Un cliente que escribió queda fijado a la primaria en sus requests siguientes")
+    void fijaAlClienteDespuesDeEscribir() throws Exception {
+        var filtro = new FijacionPrimariaFilter();
+        ReflectionTestUtils.setField(filtro, "segundosFijada", 5L);
+
+        filtrar(filtro, "10.0.0.1", (request, response) ->
+                escritura.executeWithoutResult(estado -> jdbc.update("update origen set nombre = nombre")));
+
+        assertThat(leerConFiltro(filtro, "10.0.0.1")).isEqualTo("primaria");
+        assertThat(leerConFiltro(filtro, "10.0.0.2")).as("otro cliente").isEqualTo("replica");
+    }
+
+    @Test
+    @DisplayName("Con fijar-primaria-segundos=0 el cliente no queda fijado")
+    void sinFijacion() throws Exception {
+        var filtro = new FijacionPrimariaFilter();
+        ReflectionTestUtils.setField(filtro, "segundosFijada", 0L);
+
+        filtrar(filtro, "10.0.0.1", (request, response) ->
+                escritura.executeWithoutResult(estado -> jdbc.update("update origen set nombre = nombre")));
+
+        assertThat(leerConFiltro(filtro, "10.0.0.1")).isEqualTo("replica");
+    }
+
+    private String leerConFiltro(FijacionPrimariaFilter filtro, String ip) throws Exception {
+        var resultado = new String[1];
+        filtrar(filtro, ip, (request, response) -> resultado[0] = leer(lectura));
+        return resultado[0];
+    }
+
+    private void filtrar(FijacionPrimariaFilter filtro, String ip, FilterChain cadena) throws Exception {
+        var request = new MockHttpServletRequest();
+        request.setRemoteAddr(ip);
+        filtro.doFilter(request, new MockHttpServletResponse(), cadena);
+    }
+
+    private String leer(TransactionTemplate transaccion) {
+        return transaccion.execute(estado -> origen());
+    }
+
+    private String origen() {
+        return jdbc.queryForObject("select nombre from origen", String.class);
+    }
+
+    private EmbeddedDatabase base(String nombre) {
+        var base = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+        var plantilla = new JdbcTemplate(base);
+        plantilla.execute("create table origen (nombre varchar(20))");
+        plantilla.update("insert into origen (nombre) values (?)", nombre);
+        return base;
+    }
+}
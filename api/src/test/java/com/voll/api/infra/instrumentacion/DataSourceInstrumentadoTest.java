@@ -0,0 +1,101 @@
+package com.voll.api.infra.instrumentacion;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+ * Métricas del DataSourceInstrumentado sobre una base H2 embebida.
+ */
+class DataSourceInstrumentadoTest {
+
+    private EmbeddedDatabase base;
+    private SimpleMeterRegistry registry;
+    private JdbcTemplate jdbc;
+
+    @BeforeEach
+    void crearBase() {
+        base = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+        registry = new SimpleMeterRegistry();
+        var beans = new DefaultListableBeanFactory();
+        beans.registerSingleton("registry", registry);
+        jdbc = new JdbcTemplate(new DataSourceInstrumentado(base, "dataSource", beans.getBeanProvider(MeterRegistry.class)));
+    }
+
+    @AfterEach
+    void cerrarBase() {
+        ContextoInstrumentacion.terminarRequest();
+        base.shutdown();
+    }
+
+    @Test
+    @DisplayName("Cuenta las sentencias y mide la espera y el uso de cada conexión con el endpoint de la request")
+    void midePorEndpoint() {
+        ContextoInstrumentacion.iniciarRequest("GET /medicos");
+        ContextoInstrumentacion.actual().setEndpoint("MedicoController.listar");
+
+        jdbc.queryForObject("select 1", Integer.class);
+        jdbc.queryForObject("select 2", Integer.class);
+
+        assertThat(registry.get("db.sentencias").tags("pool", "dataSource", "endpoint", "MedicoController.listar")
+                .counter().count()).isEqualTo(2);
+        assertThat(registry.get("db.conexion.espera").tag("endpoint", "MedicoController.listar").timer().count()).isEqualTo(2);
+        assertThat(registry.get("db.conexion.uso").tag("endpoint", "MedicoController.listar").timer().count()).isEqualTo(2);
+        assertThat(ContextoInstrumentacion.actual().sentencias()).isGreaterThanOrEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Fuera de una request las métricas llevan el endpoint 'ninguno'")
+    void sinRequest() {
+        jdbc.queryForObject("select 1", Integer.class);
+
+        assertThat(registry.get("db.sentencias").tag("endpoint", ContextoInstrumentacion.SIN_ENDPOINT).counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Una respuesta asíncrona escrita en otro hilo conserva el endpoint de su request")
+    void propagaElEndpointAlHiloAsincrono() throws Exception {
+        var interceptor = InstrumentacionConfiguration.propagarContexto();
+        var request = new ServletWebRequest(new MockHttpServletRequest());
+        Callable<Void> tarea = () -> null;
+
+        ContextoInstrumentacion.iniciarRequest("GET /medicos/export");
+        ContextoInstrumentacion.actual().setEndpoint("MedicoController.exportar");
+        interceptor.beforeConcurrentHandling(request, tarea);
+        ContextoInstrumentacion.terminarRequest();
+
+        var endpointAlTerminar = CompletableFuture.supplyAsync(() -> {
+            try {
+                interceptor.preProcess(request, tarea);
+                assertThat(ContextoInstrumentacion.actual().ruta()).isEqualTo("GET /medicos/export");
+                jdbc.queryForObject("select 1", Integer.class);
+                interceptor.postProcess(request, tarea, null);
+                return ContextoInstrumentacion.actual().endpoint();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }).join();
+
+        assertThat(registry.get("db.sentencias").tag("endpoint", "MedicoController.exportar").counter().count()).isEqualTo(1);
+        assertThat(registry.find("db.sentencias").tag("endpoint", ContextoInstrumentacion.SIN_ENDPOINT).counter()).isNull();
+        assertThat(endpointAlTerminar).isEqualTo(ContextoInstrumentacion.SIN_ENDPOINT);
+    }
+}
@@ -0,0 +1,127 @@
+package com.voll.api.infra.security;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.voll.api.domain.usuario.Usuario;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+ * Benchmark JMH de emisión y verificación de tokens JWT (operaciones por milisegundo).
+ *
+ * - verificarAntes       : Algorithm y JWTVerifier nuevos en cada llamada, como lo hacía TokenService.
+ * - verificarSinCache    : el JWTVerifier reutilizado, sin la caché de tokens verificados.
+ * - verificarConCache    : TokenService.verificar con el token ya en la caché.
+ * - rechazarFirmaInvalida / rechazarTextoInvalido : tokens inválidos, que ahora retornan null sin excepción
+ *                          (la firma inválida repetida se toma de la caché de tokens rechazados).
+ * - rechazarFirmaInvalidaSinCache : la misma firma inválida pasando por el HMAC y JWTVerificationException.
+ *
+ * No corre con "mvn test"; se ejecuta con:  mvn test -Pbenchmark
+ * Los resultados se imprimen por consola.
+ */
+@Tag("benchmark")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class TokenServiceBenchmarkTest {
+
+    private static final String SECRET = "secret-de-benchmark";
+
+    private TokenService service;
+    private JWTVerifier verifier;
+    private Usuario usuario;
+    private String token;
+    private String tokenConFirmaInvalida;
+
+    @Test
+    @DisplayName("Emisiones y verificaciones de JWT por milisegundo")
+    void emisionYVerificacionPorMilisegundo() throws RunnerException {
+        var opciones = new OptionsBuilder()
+                .include(TokenServiceBenchmarkTest.class.getName())
+                .forks(1)
+                .warmupIterations(3)
+                .warmupTime(TimeValue.seconds(1))
+                .measurementIterations(5)
+                .measurementTime(TimeValue.seconds(1))
+                .build();
+
+        assertThat(new Runner(opciones).run()).isNotEmpty();
+    }
+
+    @Setup
+    public void preparar() {
+        service = new TokenService();
+        ReflectionTestUtils.setField(service, "secret", SECRET);
+        ReflectionTestUtils.setField(service, "tamanioCacheVerificados", 10_000L);
+        ReflectionTestUtils.setField(service, "tamanioCacheRechazados", 10_000L);
+        ReflectionTestUtils.setField(service, "vigenciaCacheRechazados", 60L);
+        ReflectionTestUtils.setField(service, "registry", new SimpleMeterRegistry());
+        service.inicializar();
+        verifier = (JWTVerifier) ReflectionTestUtils.getField(service, "verifier");
+
+        usuario = new Usuario(1L, "benchmark", "x");
+        token = service.generateToken(usuario);
+        tokenConFirmaInvalida = token.substring(0, token.lastIndexOf('.') + 1) + "firmaInvalida";
+        service.verificar(token);
+    }
+
+    @Benchmark
+    public String emitir() {
+        return service.generateToken(usuario);
+    }
+
+    @Benchmark
+    public DecodedJWT verificarAntes() {
+        return JWT.require(Algorithm.HMAC256(SECRET)).withIssuer("API Voll.med").build().verify(token);
+    }
+
+    @Benchmark
+    public DecodedJWT verificarSinCache() {
+        return verifier.verify(token);
+    }
+
+    @Benchmark
+    public DecodedJWT verificarConCache() {
+        return service.verificar(token);
+    }
+
+    @Benchmark
+    public DecodedJWT rechazarFirmaInvalida() {
+        return service.verificar(tokenConFirmaInvalida);
+    }
+
+    @Benchmark
+    public DecodedJWT rechazarFirmaInvalidaSinCache() {
+        try {
+            return verifier.verify(tokenConFirmaInvalida);
+        } catch (JWTVerificationException e) {
+            return null;
+        }
+    }
+
+    @Benchmark
+    public DecodedJWT rechazarTextoInvalido() {
+        return service.verificar("esto-no-es-un-jwt");
+    }
+}